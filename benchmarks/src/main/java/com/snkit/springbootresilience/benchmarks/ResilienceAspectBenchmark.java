@@ -0,0 +1,156 @@
+package com.snkit.springbootresilience.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.web.client.RestTemplate;
+
+import com.snkit.springbootresilience.ResilianceDemoService;
+import com.snkit.springbootresilience.SpringbootresilienceApplication;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+
+/**
+ * Per-call cost of {@code ResilianceDemoService.getCust()} through the real Spring AOP proxies of the
+ * module on the classpath (see the profiles in the pom). The upstream is an in-process stub, so the
+ * numbers are the cost of the annotation stack, the fallbacks and the service code itself.
+ *
+ * <ul>
+ * <li>SUCCESS - the stub answers, one attempt per call</li>
+ * <li>FAILURE - the stub refuses every connection, so every call exhausts the retries and ends in a fallback.
+ * Retry waits are replaced by zero so the result is the overhead, not the configured sleep, and the breaker
+ * is configured to record every outcome without ever opening</li>
+ * <li>BREAKER_OPEN - the breaker is forced open, every call is rejected with {@code CallNotPermittedException}</li>
+ * </ul>
+ * {@code getCustFused} runs the same calls through {@code @ResilientCall}, which applies the same breaker and
+ * retry instances, counted the way the module orders them, in one advice; the difference to {@code getCust} is
+ * the cost of the second proxy hop and of the per-call registry and fallback lookups.
+ * Application logging is switched off unless the forks get {@code -Dbench.log.level=INFO}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ResilienceAspectBenchmark {
+
+    private static final String CIRCUIT_BREAKER = "getEmploye";
+
+    private static final String RETRY = "getEmployetretry";
+
+    @Param({"SUCCESS", "FAILURE", "BREAKER_OPEN"})
+    public String scenario;
+
+    private ConfigurableApplicationContext context;
+
+    private ResilianceDemoService service;
+
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringbootresilienceApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=ERROR",
+                "--logging.level.com.snkit.springbootresilience=" + System.getProperty("bench.log.level", "OFF"),
+                // every call has to reach the annotation stack, not the cache, coalescing or concurrency limit in front of it
+                "--resilience-demo.cache.enabled=false",
+                "--resilience-demo.coalescing.enabled=false",
+                "--resilience-demo.concurrency-limit.enabled=false",
+                // FAILURE has to retry on every call instead of draining the retry budget within the first second
+                "--resilience-demo.retry.budget.enabled=false",
+                "--resilience4j.circuitbreaker.instances." + CIRCUIT_BREAKER + ".sliding-window-type=TIME_BASED",
+                "--resilience4j.circuitbreaker.instances." + CIRCUIT_BREAKER + ".sliding-window-size=10",
+                "--resilience4j.circuitbreaker.instances." + CIRCUIT_BREAKER + ".minimum-number-of-calls=" + Integer.MAX_VALUE);
+
+        StubClientHttpRequestFactory upstream = new StubClientHttpRequestFactory();
+        upstream.setFailing(!"SUCCESS".equals(scenario));
+        context.getBean(RestTemplate.class).setRequestFactory(upstream);
+
+        RetryRegistry retryRegistry = context.getBean(RetryRegistry.class);
+        RetryConfig configured = retryRegistry.retry(RETRY).getRetryConfig();
+        RetryConfig noWait = RetryConfig.custom()
+                .maxAttempts(configured.getMaxAttempts())
+                .retryOnException(configured.getExceptionPredicate())
+                .retryOnResult(configured.getResultPredicate())
+                .intervalFunction(attempt -> 0L)
+                .build();
+        retryRegistry.replace(RETRY, Retry.of(RETRY, noWait));
+
+        CircuitBreaker circuitBreaker = context.getBean(CircuitBreakerRegistry.class).circuitBreaker(CIRCUIT_BREAKER);
+        if ("BREAKER_OPEN".equals(scenario)) {
+            circuitBreaker.transitionToForcedOpenState();
+        }
+
+        service = context.getBean(ResilianceDemoService.class);
+        logOrdering(context.getEnvironment());
+
+        // the fallbacks print to stdout, which would flood the forked JVM's console
+        stdout = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+        context.close();
+    }
+
+    @Benchmark
+    public String getCust() {
+        return service.getCust();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String getCustContended() {
+        return service.getCust();
+    }
+
+    @Benchmark
+    public String getCustFused() {
+        return service.getCustFused();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String getCustFusedContended() {
+        return service.getCustFused();
+    }
+
+    private static void logOrdering(Environment environment) {
+        int circuitBreakerOrder = environment.getProperty("resilience4j.circuitbreaker.circuit-breaker-aspect-order",
+                Integer.class, Integer.MAX_VALUE - 3);
+        int retryOrder = environment.getProperty("resilience4j.retry.retry-aspect-order",
+                Integer.class, Integer.MAX_VALUE - 4);
+        System.out.println(circuitBreakerOrder < retryOrder
+                ? "# Ordering: CircuitBreaker(Retry(getCust))"
+                : "# Ordering: Retry(CircuitBreaker(getCust))");
+    }
+}
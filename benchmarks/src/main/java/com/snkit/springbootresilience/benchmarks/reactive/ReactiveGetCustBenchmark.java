@@ -0,0 +1,113 @@
+package com.snkit.springbootresilience.benchmarks.reactive;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import com.snkit.springbootresilience.ResilianceDemoService;
+import com.snkit.springbootresilience.SpringbootresilienceApplication;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+
+/**
+ * Per-call cost of the reactive {@code ResilianceDemoService.getCust()}: the same scenarios as
+ * {@code ResilienceAspectBenchmark}, with the Reactor operators (time limiter, retry and circuit breaker in
+ * either ordering, bulkhead) in place of the annotation aspects and a stub {@code ExchangeFunction} in place of
+ * the network. Each operation subscribes and blocks for the result, so the numbers include assembling the
+ * operator chain and the time limiter's timer, not just the resilience4j bookkeeping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReactiveGetCustBenchmark {
+
+    private static final String CIRCUIT_BREAKER = "getEmploye";
+
+    private static final String RETRY = "getEmployetretry";
+
+    @Param({"SUCCESS", "FAILURE", "BREAKER_OPEN"})
+    public String scenario;
+
+    /** CIRCUIT_BREAKER_RETRY nests like curcuitbreakerretryorder, RETRY_CIRCUIT_BREAKER like retrycurcuitbreakerorder. */
+    @Param({"CIRCUIT_BREAKER_RETRY", "RETRY_CIRCUIT_BREAKER"})
+    public String ordering;
+
+    private ConfigurableApplicationContext context;
+
+    private ResilianceDemoService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StubExchangeFunction upstream = new StubExchangeFunction();
+        upstream.setFailing(!"SUCCESS".equals(scenario));
+        context = new SpringApplicationBuilder(SpringbootresilienceApplication.class)
+                .initializers(applicationContext -> ((GenericApplicationContext) applicationContext)
+                        .registerBean(StubExchangeFunction.class, () -> upstream))
+                .run(
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=ERROR",
+                "--logging.level.com.snkit.springbootresilience=" + System.getProperty("bench.log.level", "OFF"),
+                "--resilience4j.circuitbreaker.circuit-breaker-aspect-order=" + ("CIRCUIT_BREAKER_RETRY".equals(ordering) ? 2 : 5),
+                "--resilience4j.circuitbreaker.instances." + CIRCUIT_BREAKER + ".sliding-window-type=TIME_BASED",
+                "--resilience4j.circuitbreaker.instances." + CIRCUIT_BREAKER + ".sliding-window-size=10",
+                "--resilience4j.circuitbreaker.instances." + CIRCUIT_BREAKER + ".minimum-number-of-calls=" + Integer.MAX_VALUE);
+
+        RetryRegistry retryRegistry = context.getBean(RetryRegistry.class);
+        RetryConfig configured = retryRegistry.retry(RETRY).getRetryConfig();
+        RetryConfig noWait = RetryConfig.custom()
+                .maxAttempts(configured.getMaxAttempts())
+                .retryOnException(configured.getExceptionPredicate())
+                .retryOnResult(configured.getResultPredicate())
+                .intervalFunction(attempt -> 0L)
+                .build();
+        retryRegistry.replace(RETRY, Retry.of(RETRY, noWait));
+
+        CircuitBreaker circuitBreaker = context.getBean(CircuitBreakerRegistry.class).circuitBreaker(CIRCUIT_BREAKER);
+        if ("BREAKER_OPEN".equals(scenario)) {
+            circuitBreaker.transitionToForcedOpenState();
+        }
+
+        service = context.getBean(ResilianceDemoService.class);
+        System.out.println(service.isCircuitBreakerOuter()
+                ? "# Ordering: CircuitBreaker(Retry(getCust))"
+                : "# Ordering: Retry(CircuitBreaker(getCust))");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String getCust() {
+        return service.getCust().block();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String getCustContended() {
+        return service.getCust().block();
+    }
+}
@@ -0,0 +1,42 @@
+package com.snkit.springbootresilience.benchmarks.reactive;
+
+import java.net.ConnectException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * In-process upstream for the reactive benchmarks: answers every request without touching the network,
+ * either with a fixed JSON body or with the {@link ConnectException} a dead upstream produces.
+ */
+public class StubExchangeFunction implements ExchangeFunction {
+
+    private static final String BODY = "{\"id\":1,\"name\":\"employee\"}";
+
+    // building the codecs is far more expensive than anything measured here, so it is done once
+    private final ExchangeStrategies strategies = ExchangeStrategies.withDefaults();
+
+    private volatile boolean failing;
+
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    @Override
+    public Mono<ClientResponse> exchange(ClientRequest request) {
+        if (failing) {
+            return Mono.error(new ConnectException("Connection refused (stub upstream)"));
+        }
+        return Mono.just(ClientResponse.create(HttpStatus.OK, strategies)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(BODY)
+                .build());
+    }
+}
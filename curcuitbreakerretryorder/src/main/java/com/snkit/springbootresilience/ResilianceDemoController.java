@@ -1,20 +1,80 @@
 package com.snkit.springbootresilience;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snkit.springbootresilience.batch.BatchProperties;
+import com.snkit.springbootresilience.batch.BatchResultEmitter;
+import com.snkit.springbootresilience.eventstream.ResilienceEventStream;
 
 @RestController
 public class ResilianceDemoController {
 	
 	@Autowired
 	ResilianceDemoService resilianceDemoService;
+
+	@Autowired
+	BatchProperties batchProperties;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	ResilienceEventStream eventStream;
 	
 	@GetMapping(value = "/getCust")
 	public String getcustByNames() {
 		return resilianceDemoService.getCust();
 
 	}
+
+	@GetMapping(value = "/getCustAsync")
+	public CompletableFuture<String> getcustByNamesAsync() {
+		return resilianceDemoService.getCustAsync();
+	}
+
+	@GetMapping(value = "/getCustFor")
+	public String getcustByNamesFor(@RequestParam String tenant) {
+		return resilianceDemoService.getCustFor(tenant);
+	}
+
+	// /getCusts?ids=1,2,3 streams one JSON line per distinct id as soon as it is done
+	@GetMapping(value = "/getCusts")
+	public ResponseEntity<ResponseBodyEmitter> getcustsByIds(@RequestParam List<String> ids) {
+		List<String> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+		if (distinct.size() > batchProperties.getMaxItems()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"At most " + batchProperties.getMaxItems() + " ids per request");
+		}
+		BatchResultEmitter emitter = new BatchResultEmitter(objectMapper, batchProperties.getTimeout());
+		resilianceDemoService.getCusts(distinct, emitter, emitter::isClosed).whenComplete(emitter::finish);
+		return ResponseEntity.ok().contentType(BatchResultEmitter.NDJSON).body(emitter);
+	}
+
+	// Server-Sent-Events of every breaker and retry as they happen, e.g. /events?types=STATE_TRANSITION,retry
+	@GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamEvents(@RequestParam(required = false) List<String> types) {
+		return eventStream.subscribe(types);
+	}
+
+	@GetMapping(value = "/getCustFused")
+	public String getcustByNamesFused() {
+		return resilianceDemoService.getCustFused();
+	}
 	
 
 }
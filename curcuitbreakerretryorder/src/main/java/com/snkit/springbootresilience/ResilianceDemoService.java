@@ -1,5 +1,15 @@
 package com.snkit.springbootresilience;
 
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,11 +20,25 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
 
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 
+import com.snkit.springbootresilience.batch.BatchFanOut;
+import com.snkit.springbootresilience.batch.BatchItemResult;
+import com.snkit.springbootresilience.batch.BatchProperties;
+import com.snkit.springbootresilience.cache.ResponseCache;
+import com.snkit.springbootresilience.fused.CountingMode;
+import com.snkit.springbootresilience.fused.ResilientCall;
+import com.snkit.springbootresilience.hedging.HedgedRequests;
+import com.snkit.springbootresilience.keyed.KeyedResilienceRegistry;
+import com.snkit.springbootresilience.latency.LatencyRecorder;
+import com.snkit.springbootresilience.retry.RetryBudget;
+
 
 @Service
 public class ResilianceDemoService {
@@ -22,6 +46,31 @@ public class ResilianceDemoService {
     @Autowired
     RestTemplate restTemplate;
 
+    @Autowired
+    HedgedRequests hedgedRequests;
+
+    @Autowired
+    ResponseCache responseCache;
+
+    @Autowired
+    RetryBudget retryBudget;
+
+    @Autowired
+    LatencyRecorder latencyRecorder;
+
+    @Autowired
+    KeyedResilienceRegistry keyedResilience;
+
+    @Autowired
+    BatchFanOut batchFanOut;
+
+    @Autowired
+    BatchProperties batchProperties;
+
+    public static final String UPSTREAM_URL = "http://localhost:8070/getEmploye";
+
+    public static final String TENANT_HEADER = "X-Tenant";
+
     private static final Logger logger = LoggerFactory.getLogger(ResilianceDemoService.class);
 
     @CircuitBreaker(name = "getEmploye", fallbackMethod = "getCustFallBack")
@@ -29,31 +78,171 @@ public class ResilianceDemoService {
     public String getCust() {
         logger.info(" Entring into getCust  ResilianceDemoService ");
 
+        String body = hedgedRequests.execute(this::callUpstream);
+
+        logger.info(" Exist from  getCust  ResilianceDemoService ");
+        return body;
+
+    }
+
+    // async variant: the exchange runs on upstreamExecutor and retry waits are scheduled by the retry aspect,
+    // so no servlet thread is held while the upstream is slow or while the retry backs off
+    @CircuitBreaker(name = "getEmploye", fallbackMethod = "getCustAsyncFallBack")
+    @Retry(name = "getEmployetretry", fallbackMethod = "getRetryCustAsyncFallBack")
+    public CompletableFuture<String> getCustAsync() {
+        logger.info(" Entring into getCustAsync  ResilianceDemoService ");
+        return hedgedRequests.executeAsync(this::callUpstream);
+    }
+
+    // same instances and ordering as getCust, applied by one advice: the breaker records the call once, after the retries
+    @ResilientCall(circuitBreaker = "getEmploye", retry = "getEmployetretry",
+            counting = CountingMode.PER_CALL, fallbackMethod = "getCustFallBack")
+    public String getCustFused() {
+        logger.info(" Entring into getCustFused  ResilianceDemoService ");
+        return hedgedRequests.execute(this::callUpstream);
+    }
+
+    // one breaker and retry per tenant, created on first use from the getEmploye / getEmployetretry configuration,
+    // so a failing tenant opens its own breaker and not the one every other tenant goes through
+    public String getCustFor(String tenant) {
+        logger.info(" Entring into getCustFor  ResilianceDemoService ");
+        try {
+            return keyedResilience.execute(tenant, () -> hedgedRequests.execute(() -> callUpstreamFor(tenant)));
+        } catch (RuntimeException e) {
+            return getCustForFallBack(tenant, e);
+        }
+    }
+
+    // many customers in one request: bounded parallel fan-out (or chunked calls to the batch upstream API when configured),
+    // every upstream call guarded by getEmploye / getEmployetretry, a failed item gets its own fallback;
+    // nothing new is started once cancelled, i.e. the client is gone
+    public CompletableFuture<Void> getCusts(List<String> ids, Consumer<BatchItemResult> sink, BooleanSupplier cancelled) {
+        logger.info(" Entring into getCusts  ResilianceDemoService ");
+        String batchUrl = batchProperties.getUpstreamBatchUrl();
+        if (batchUrl.isEmpty()) {
+            return batchFanOut.execute(ids, 1,
+                    unit -> Collections.singletonMap(unit.get(0), callUpstreamById(unit.get(0))),
+                    this::getCustsFallBack, sink, cancelled);
+        }
+        return batchFanOut.execute(ids, batchProperties.getChunkSize(),
+                unit -> callUpstreamBatch(batchUrl, unit),
+                this::getCustsFallBack, sink, cancelled);
+    }
+
+    private String callUpstream() {
+        ResponseEntity<String> response = exchange(URI.create(UPSTREAM_URL), null, String.class);
+        responseCache.put(UPSTREAM_URL, response.getBody());
+        retryBudget.recordSuccess();
+        return response.getBody();
+    }
+
+    // not cached: the stale fallback of getCust must never serve one tenant's response to another
+    private String callUpstreamFor(String tenant) {
+        ResponseEntity<String> response = exchange(URI.create(UPSTREAM_URL), tenant, String.class);
+        retryBudget.recordSuccess();
+        return response.getBody();
+    }
+
+    private String callUpstreamById(String id) {
+        URI uri = itemUri(id);
+        ResponseEntity<String> response = exchange(uri, null, String.class);
+        responseCache.put(uri.toString(), response.getBody());
+        retryBudget.recordSuccess();
+        return response.getBody();
+    }
+
+    // the batch API answers a JSON object keyed by id; ids it leaves out get the per-item fallback
+    private Map<String, String> callUpstreamBatch(String batchUrl, List<String> ids) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(batchUrl).queryParam("ids", String.join(",", ids)).encode().build().toUri();
+        JsonNode bodies = exchange(uri, null, JsonNode.class).getBody();
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String id : ids) {
+            JsonNode body = bodies == null ? null : bodies.get(id);
+            if (body != null && !body.isNull()) {
+                result.put(id, body.toString());
+                responseCache.put(itemUri(id).toString(), body.toString());
+            }
+        }
+        retryBudget.recordSuccess();
+        return result;
+    }
+
+    private static URI itemUri(String id) {
+        return UriComponentsBuilder.fromHttpUrl(UPSTREAM_URL).queryParam("id", id).encode().build().toUri();
+    }
+
+    private <T> ResponseEntity<T> exchange(URI uri, String tenant, Class<T> responseType) {
         MultiValueMap<String, String> headers = new HttpHeaders();
 
         headers.add("Content-Type", "application/json");
         headers.add("Accept", "application/json");
+        if (tenant != null) {
+            headers.add(TENANT_HEADER, tenant);
+        }
         HttpEntity requestEntity = new HttpEntity(headers);
-        ResponseEntity<String> response = restTemplate.exchange("http://localhost:8070/getEmploye",
+        return restTemplate.exchange(uri,
                 HttpMethod.GET,
                 requestEntity,
-                String.class);
-
-        logger.info(" Exist from  getCust  ResilianceDemoService ");
-        return response.getBody();
-
+                responseType);
     }
 
     // this configuration is required when we donot want consider each retry call for curcuit count
+    // serves the last good response (marked stale) while the breaker is open or the retries are exhausted
     public String getCustFallBack(java.lang.Throwable ex) {
-        logger.info("From GetCustFallBack response ");
-        System.out.println(" getCustFallBack  " + ex);
-        return "Response from getCustFallBack";
+        long start = System.nanoTime();
+        String response = null;
+        try {
+            logger.info("From GetCustFallBack response ");
+            System.out.println(" getCustFallBack  " + ex);
+            response = responseCache.getStale(UPSTREAM_URL).orElse("Response from getCustFallBack");
+            return response;
+        } finally {
+            latencyRecorder.recordFallback("getCustFallBack", System.nanoTime() - start, response != null);
+        }
     }
 
     public String getRetryCustFallBack(java.lang.Throwable throwable) {
-        logger.info("From getRetryCustFallBack response ");
-        System.out.println(" getRetryCustFallBack  " + throwable);
-        throw new RuntimeException("Retry not worked");
+        long start = System.nanoTime();
+        try {
+            logger.info("From getRetryCustFallBack response ");
+            System.out.println(" getRetryCustFallBack  " + throwable);
+            throw new RuntimeException("Retry not worked");
+        } finally {
+            latencyRecorder.recordFallback("getRetryCustFallBack", System.nanoTime() - start, false);
+        }
+    }
+
+    public String getCustForFallBack(String tenant, java.lang.Throwable ex) {
+        logger.info("From getCustForFallBack response tenant {} {}", tenant, ex.toString());
+        return "Response from getCustForFallBack for tenant " + tenant;
+    }
+
+    // per-item fallback of getCusts: the last good response of that id, if any
+    public String getCustsFallBack(String id, java.lang.Throwable ex) {
+        logger.info("From getCustsFallBack response id {} {}", id, ex.toString());
+        return responseCache.getStale(itemUri(id).toString()).orElse("Response from getCustsFallBack");
+    }
+
+    public CompletableFuture<String> getCustAsyncFallBack(java.lang.Throwable ex) {
+        return fallBackAsync(() -> getCustFallBack(unwrap(ex)));
+    }
+
+    public CompletableFuture<String> getRetryCustAsyncFallBack(java.lang.Throwable throwable) {
+        return fallBackAsync(() -> getRetryCustFallBack(unwrap(throwable)));
+    }
+
+    // a fallback that throws must surface as a failed future, otherwise the outer aspect never sees the failure
+    private static CompletableFuture<String> fallBackAsync(java.util.function.Supplier<String> fallBack) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        try {
+            result.complete(fallBack.get());
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
     }
 }
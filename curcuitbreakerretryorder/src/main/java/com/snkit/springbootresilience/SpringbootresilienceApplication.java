@@ -1,17 +1,25 @@
 package com.snkit.springbootresilience;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import com.snkit.springbootresilience.limiter.AdaptiveConcurrencyLimiter;
+
 
 @SpringBootApplication
 public class SpringbootresilienceApplication {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(ClientHttpRequestFactory upstreamRequestFactory,
+                                     ObjectProvider<AdaptiveConcurrencyLimiter> concurrencyLimiter) {
+        RestTemplate restTemplate = new RestTemplate(upstreamRequestFactory);
+        // the limiter samples upstream latency and failures of every exchange
+        concurrencyLimiter.ifAvailable(limiter -> restTemplate.getInterceptors().add(limiter));
+        return restTemplate;
     }
 
     public static void main(String[] args) {
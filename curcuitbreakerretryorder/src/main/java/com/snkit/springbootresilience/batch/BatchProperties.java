@@ -0,0 +1,87 @@
+package com.snkit.springbootresilience.batch;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "resilience-demo.batch")
+public class BatchProperties {
+
+    /** Upstream calls of one batch in flight at once. */
+    private int parallelism = 8;
+
+    /** Distinct ids accepted per request. */
+    private int maxItems = 200;
+
+    private String circuitBreaker = "getEmploye";
+
+    private String retry = "getEmployetretry";
+
+    /**
+     * Batch upstream API, called as {@code <url>?ids=a,b,c} and answering a JSON object keyed by id.
+     * Empty means one upstream call per id.
+     */
+    private String upstreamBatchUrl = "";
+
+    /** Ids per batch upstream call. */
+    private int chunkSize = 50;
+
+    /** How long the streamed response may stay open. */
+    private Duration timeout = Duration.ofSeconds(60);
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public void setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+    }
+
+    public String getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(String circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public String getRetry() {
+        return retry;
+    }
+
+    public void setRetry(String retry) {
+        this.retry = retry;
+    }
+
+    public String getUpstreamBatchUrl() {
+        return upstreamBatchUrl;
+    }
+
+    public void setUpstreamBatchUrl(String upstreamBatchUrl) {
+        this.upstreamBatchUrl = upstreamBatchUrl;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
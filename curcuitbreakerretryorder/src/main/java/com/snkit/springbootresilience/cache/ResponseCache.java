@@ -0,0 +1,189 @@
+package com.snkit.springbootresilience.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Bounded, TTL based cache of the last good upstream responses.
+ * Fresh entries are served by {@link ResponseCacheAspect} without touching the network; expired entries
+ * within {@code max-stale} are kept for the fallbacks, which serve them with a stale marker while the
+ * breaker is open or the retries are exhausted.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    private final ResponseCacheProperties properties;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor refresher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(64), runnable -> {
+                Thread thread = new Thread(runnable, "response-cache-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder staleServed = new LongAdder();
+
+    private final LongAdder staleUnavailable = new LongAdder();
+
+    private final LongAdder refreshes = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the entry if it is younger than the TTL. A hit close to expiry schedules {@code refresh}
+     * once, so hot keys are revalidated before they expire.
+     */
+    public Optional<String> getFresh(String key, Runnable refresh) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        Entry entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry == null || now - entry.storedAt >= properties.getTtl().toNanos()) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        long refreshAt = properties.getTtl().minus(properties.getRefreshAhead()).toNanos();
+        if (now - entry.storedAt >= refreshAt && entry.refreshing.compareAndSet(false, true)) {
+            try {
+                refresher.execute(() -> {
+                    try {
+                        refresh.run();
+                    } catch (RuntimeException e) {
+                        logger.debug("Background refresh of {} failed: {}", key, e.toString());
+                    } finally {
+                        entry.refreshing.set(false);
+                    }
+                });
+                refreshes.increment();
+            } catch (RejectedExecutionException e) {
+                // the refresh queue is full: a later hit on the entry tries again
+                entry.refreshing.set(false);
+            }
+        }
+        return Optional.of(entry.value);
+    }
+
+    /**
+     * Returns the last good response if it is within max-stale, prefixed with a marker and its age.
+     */
+    public Optional<String> getStale(String key) {
+        Entry entry = properties.isEnabled() ? entries.get(key) : null;
+        if (entry != null) {
+            long ageNanos = System.nanoTime() - entry.storedAt;
+            if (ageNanos < properties.getMaxStale().toNanos()) {
+                staleServed.increment();
+                return Optional.of("Response from stale cache (age " + TimeUnit.NANOSECONDS.toSeconds(ageNanos) + "s) - "
+                        + entry.value);
+            }
+        }
+        staleUnavailable.increment();
+        return Optional.empty();
+    }
+
+    public void put(String key, String value) {
+        if (!properties.isEnabled() || value == null) {
+            return;
+        }
+        if (entries.put(key, new Entry(value)) == null && entries.size() > properties.getMaxEntries()) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        // only runs when a new key pushes the cache over its bound, so a scan is cheaper than keeping an LRU list
+        long now = System.nanoTime();
+        long maxStale = properties.getMaxStale().toNanos();
+        String oldestKey = null;
+        long oldest = Long.MAX_VALUE;
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Entry> candidate = it.next();
+            if (now - candidate.getValue().storedAt >= maxStale) {
+                it.remove();
+                evictions.increment();
+            } else if (candidate.getValue().storedAt < oldest) {
+                oldest = candidate.getValue().storedAt;
+                oldestKey = candidate.getKey();
+            }
+        }
+        if (entries.size() > properties.getMaxEntries() && oldestKey != null && entries.remove(oldestKey) != null) {
+            evictions.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCounter(registry, hits, "hit");
+        bindCounter(registry, misses, "miss");
+        bindCounter(registry, staleServed, "stale_served");
+        bindCounter(registry, staleUnavailable, "stale_unavailable");
+        FunctionCounter.builder("response.cache.refreshes", refreshes, LongAdder::sum)
+                .description("Background revalidations of entries close to expiry")
+                .register(registry);
+        FunctionCounter.builder("response.cache.evictions", evictions, LongAdder::sum)
+                .description("Entries dropped because the cache was full or past max-stale")
+                .register(registry);
+        Gauge.builder("response.cache.size", entries, Map::size)
+                .description("Cached upstream responses")
+                .register(registry);
+    }
+
+    private static void bindCounter(MeterRegistry registry, LongAdder counter, String result) {
+        FunctionCounter.builder("response.cache.requests", counter, LongAdder::sum)
+                .description("Response cache lookups by result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static final class Entry {
+
+        final String value;
+
+        final long storedAt = System.nanoTime();
+
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(String value) {
+            this.value = value;
+        }
+    }
+}
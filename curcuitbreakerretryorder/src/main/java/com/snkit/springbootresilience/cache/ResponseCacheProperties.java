@@ -0,0 +1,66 @@
+package com.snkit.springbootresilience.cache;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the last-known-good cache in front of the upstream call.
+ */
+@ConfigurationProperties(prefix = "resilience-demo.cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /** Maximum number of cached upstream responses; the oldest entries are evicted beyond it. */
+    private int maxEntries = 10_000;
+
+    /** Age up to which an entry is served directly without calling the upstream. */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /** Age up to which an expired entry may still be served by the fallbacks while the upstream is unavailable. */
+    private Duration maxStale = Duration.ofMinutes(10);
+
+    /** A fresh hit younger than ttl but older than ttl minus this value triggers one background revalidation. */
+    private Duration refreshAhead = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getMaxStale() {
+        return maxStale;
+    }
+
+    public void setMaxStale(Duration maxStale) {
+        this.maxStale = maxStale;
+    }
+
+    public Duration getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public void setRefreshAhead(Duration refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+}
@@ -0,0 +1,79 @@
+package com.snkit.springbootresilience.cluster;
+
+import java.lang.management.ManagementFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+
+/**
+ * Optional cluster state sharing, see {@link ClusterStateCoordinator}. Replaces the shared circuit breaker
+ * instances, before anything else sees the registry, with copies whose wait in the open state grows by
+ * {@code half-open-stagger} per position of this instance in the cluster's probe order. A {@link ClusterTransport}
+ * bean of the application's own replaces the configured one.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "resilience-demo.cluster", name = "enabled")
+@EnableConfigurationProperties(ClusterStateProperties.class)
+public class ClusterStateConfiguration {
+
+    @Bean
+    public ClusterMembership clusterMembership(ClusterStateProperties properties) {
+        String nodeId = properties.getNodeId().isEmpty()
+                ? ManagementFactory.getRuntimeMXBean().getName() : properties.getNodeId();
+        return new ClusterMembership(nodeId, properties.getPeerTimeout().toNanos());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ClusterTransport clusterTransport(ClusterStateProperties properties) {
+        if (properties.getTransport() == ClusterStateProperties.Transport.IN_MEMORY) {
+            return new InMemoryClusterTransport(properties.getGroup());
+        }
+        return new UdpClusterTransport(properties.getBindAddress(), properties.getPort(), properties.getPeers());
+    }
+
+    @Bean
+    public ClusterStateCoordinator clusterStateCoordinator(ClusterStateProperties properties, ClusterMembership membership,
+                                                           ClusterTransport transport, CircuitBreakerRegistry circuitBreakerRegistry) {
+        return new ClusterStateCoordinator(properties, membership, transport, circuitBreakerRegistry);
+    }
+
+    @Bean
+    public static BeanPostProcessor clusterHalfOpenStaggerPostProcessor(ObjectProvider<ClusterStateProperties> properties,
+                                                                        ObjectProvider<ClusterMembership> membership) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CircuitBreakerRegistry) {
+                    apply((CircuitBreakerRegistry) bean, properties.getObject(), membership.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static void apply(CircuitBreakerRegistry registry, ClusterStateProperties properties, ClusterMembership membership) {
+        long staggerMillis = properties.getHalfOpenStagger().toMillis();
+        for (String name : properties.getCircuitBreakers()) {
+            CircuitBreakerConfig configured = registry.circuitBreaker(name).getCircuitBreakerConfig();
+            IntervalFunction wait = configured.getWaitIntervalFunctionInOpenState();
+            // the rank is taken each time the breaker opens, from the peers alive at that moment
+            IntervalFunction staggered = attempt -> wait.apply(attempt) + membership.halfOpenRank(name) * staggerMillis;
+            CircuitBreakerConfig config = CircuitBreakerConfig.from(configured)
+                    .waitIntervalFunctionInOpenState(staggered)
+                    .build();
+            // removed and added rather than replaced, so the actuator event consumers follow the new instance
+            registry.remove(name);
+            registry.circuitBreaker(name, config);
+        }
+    }
+}
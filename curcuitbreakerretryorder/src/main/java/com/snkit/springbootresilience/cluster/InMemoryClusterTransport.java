@@ -0,0 +1,51 @@
+package com.snkit.springbootresilience.cluster;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * Connects the instances of one group inside a single JVM, e.g. several application contexts started by a
+ * test or a benchmark. Messages are handed to the other members on the sending thread and never lost.
+ */
+public class InMemoryClusterTransport implements ClusterTransport {
+
+    private static final ConcurrentMap<String, Set<InMemoryClusterTransport>> GROUPS = new ConcurrentHashMap<>();
+
+    private final String group;
+
+    private volatile Consumer<String> receiver;
+
+    public InMemoryClusterTransport(String group) {
+        this.group = group;
+    }
+
+    @Override
+    public void start(Consumer<String> receiver) {
+        this.receiver = receiver;
+        GROUPS.computeIfAbsent(group, name -> new CopyOnWriteArraySet<>()).add(this);
+    }
+
+    @Override
+    public void send(String message) {
+        Set<InMemoryClusterTransport> members = GROUPS.get(group);
+        if (members == null) {
+            return;
+        }
+        for (InMemoryClusterTransport member : members) {
+            if (member != this) {
+                member.receiver.accept(message);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        GROUPS.computeIfPresent(group, (name, members) -> {
+            members.remove(this);
+            return members.isEmpty() ? null : members;
+        });
+    }
+}
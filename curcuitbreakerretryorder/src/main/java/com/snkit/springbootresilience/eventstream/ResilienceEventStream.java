@@ -0,0 +1,237 @@
+package com.snkit.springbootresilience.eventstream;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Pushes circuit breaker and retry events of every registry instance, including ones created or replaced
+ * later, to Server-Sent-Events subscribers as they happen.
+ * <p>
+ * The thread that raised the event only checks the subscriber's filter and stores a reference in the
+ * subscriber's bounded ring (drop-oldest); with no subscribers it does nothing at all. A flush task hands
+ * subscribers with pending events to a sender pool, at most one send in flight per subscriber, so a slow
+ * client delays only its own stream: its ring overflows and it receives a {@code dropped} event with the
+ * number of events it lost before the next ones.
+ */
+@Component
+@EnableConfigurationProperties(EventStreamProperties.class)
+public class ResilienceEventStream implements MeterBinder {
+
+    private final EventStreamProperties properties;
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final RetryRegistry retryRegistry;
+
+    private final ObjectMapper objectMapper;
+
+    private final CopyOnWriteArrayList<EventSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private ScheduledExecutorService flusher;
+
+    private ThreadPoolExecutor senders;
+
+    public ResilienceEventStream(EventStreamProperties properties,
+                                 CircuitBreakerRegistry circuitBreakerRegistry,
+                                 RetryRegistry retryRegistry,
+                                 ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.retryRegistry = retryRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        circuitBreakerRegistry.getAllCircuitBreakers().forEach(this::listen);
+        circuitBreakerRegistry.getEventPublisher()
+                .onEntryAdded(event -> listen(event.getAddedEntry()))
+                .onEntryReplaced(event -> listen(event.getNewEntry()));
+        retryRegistry.getAllRetries().forEach(this::listen);
+        retryRegistry.getEventPublisher()
+                .onEntryAdded(event -> listen(event.getAddedEntry()))
+                .onEntryReplaced(event -> listen(event.getNewEntry()));
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-stream-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // one send in flight per subscriber and at most max-subscribers subscribers, so this never queues
+        senders = new ThreadPoolExecutor(0, Math.max(1, properties.getMaxSubscribers()), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "event-stream-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void listen(CircuitBreaker circuitBreaker) {
+        circuitBreaker.getEventPublisher().onEvent(event -> publish(StreamedEvent.CIRCUIT_BREAKER,
+                event.getEventType().name(), event.getCircuitBreakerName(), event.getCreationTime(), event));
+    }
+
+    private void listen(Retry retry) {
+        retry.getEventPublisher().onEvent(event -> publish(StreamedEvent.RETRY,
+                event.getEventType().name(), event.getName(), event.getCreationTime(), event));
+    }
+
+    private void publish(String source, String type, String name, ZonedDateTime time, Object event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        StreamedEvent streamed = new StreamedEvent(source, type, name, time, event);
+        for (EventSubscriber subscriber : subscribers) {
+            if (subscriber.accepts(streamed)) {
+                subscriber.offer(streamed);
+            }
+        }
+    }
+
+    /**
+     * @param types event filter, see {@link EventSubscriber#accepts}; empty for every event
+     */
+    public synchronized SseEmitter subscribe(Collection<String> types) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "At most " + properties.getMaxSubscribers() + " event stream subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        EventSubscriber subscriber = new EventSubscriber(emitter, normalize(types), properties.getBufferSize());
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> close(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    // sources are matched lower case, types upper case, whatever the client sent
+    private static Set<String> normalize(Collection<String> types) {
+        Set<String> filter = new HashSet<>();
+        if (types == null) {
+            return filter;
+        }
+        for (String token : types) {
+            String trimmed = token.trim();
+            int dot = trimmed.indexOf('.');
+            if (dot > 0) {
+                filter.add(trimmed.substring(0, dot).toLowerCase(Locale.ROOT) + "." + trimmed.substring(dot + 1).toUpperCase(Locale.ROOT));
+            } else if (StreamedEvent.CIRCUIT_BREAKER.equalsIgnoreCase(trimmed) || StreamedEvent.RETRY.equalsIgnoreCase(trimmed)) {
+                filter.add(trimmed.toLowerCase(Locale.ROOT));
+            } else if (!trimmed.isEmpty()) {
+                filter.add(trimmed.toUpperCase(Locale.ROOT));
+            }
+        }
+        return filter;
+    }
+
+    private void close(EventSubscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+
+    private void flush() {
+        long heartbeatNanos = properties.getHeartbeat().toNanos();
+        long now = System.nanoTime();
+        for (EventSubscriber subscriber : subscribers) {
+            boolean due = !subscriber.isEmpty() || now - subscriber.lastSentNanos > heartbeatNanos;
+            if (due && !subscriber.closed && subscriber.sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(() -> send(subscriber));
+                } catch (RejectedExecutionException e) {
+                    subscriber.sending.set(false);
+                }
+            }
+        }
+    }
+
+    private void send(EventSubscriber subscriber) {
+        try {
+            List<StreamedEvent> batch = new ArrayList<>();
+            long lost = subscriber.drainTo(batch);
+            if (lost > 0) {
+                dropped.add(lost);
+                subscriber.emitter.send(SseEmitter.event().name("dropped").data("{\"dropped\":" + lost + "}"));
+            }
+            for (StreamedEvent event : batch) {
+                subscriber.emitter.send(SseEmitter.event().name(event.source + "." + event.type).data(toJson(event)));
+            }
+            if (batch.isEmpty() && lost == 0) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            subscriber.lastSentNanos = System.nanoTime();
+        } catch (IOException | IllegalStateException e) {
+            // the client went away or the emitter completed; the container completes the async request
+            close(subscriber);
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private String toJson(StreamedEvent event) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("source", event.source);
+        json.put("type", event.type);
+        json.put("name", event.name);
+        json.put("time", event.time.toString());
+        json.put("message", event.event.toString());
+        return objectMapper.writeValueAsString(json);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("events.stream.subscribers", subscribers, List::size)
+                .description("Connected event stream subscribers")
+                .register(registry);
+        FunctionCounter.builder("events.stream.dropped", dropped, LongAdder::sum)
+                .description("Events dropped because a subscriber fell behind")
+                .register(registry);
+    }
+}
@@ -0,0 +1,32 @@
+package com.snkit.springbootresilience.eventstream;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A resilience4j event as captured on the calling thread: references only, formatting is left to the
+ * thread that pushes it to the subscribers.
+ */
+final class StreamedEvent {
+
+    static final String CIRCUIT_BREAKER = "circuitbreaker";
+
+    static final String RETRY = "retry";
+
+    final String source;
+
+    final String type;
+
+    final String name;
+
+    final ZonedDateTime time;
+
+    final Object event;
+
+    StreamedEvent(String source, String type, String name, ZonedDateTime time, Object event) {
+        this.source = source;
+        this.type = type;
+        this.name = name;
+        this.time = time;
+        this.event = event;
+    }
+}
@@ -0,0 +1,99 @@
+package com.snkit.springbootresilience.hedging;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "resilience-demo.hedging")
+public class HedgingProperties {
+
+    public enum DelayMode {
+        /** hedge after {@code delay} */
+        FIXED,
+        /** hedge after the observed {@code percentile} of upstream latency, {@code delay} until enough samples exist */
+        PERCENTILE
+    }
+
+    private boolean enabled = false;
+
+    private DelayMode delayMode = DelayMode.PERCENTILE;
+
+    private Duration delay = Duration.ofMillis(100);
+
+    private double percentile = 0.95;
+
+    /** Lower bound of the percentile delay, so a very fast upstream is not hedged on every jitter. */
+    private Duration minDelay = Duration.ofMillis(10);
+
+    /** Latency samples kept for the percentile. */
+    private int sampleSize = 1024;
+
+    /** Hedges allowed as a percentage of the calls within the window. */
+    private double maxHedgePercent = 10;
+
+    private Duration window = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DelayMode getDelayMode() {
+        return delayMode;
+    }
+
+    public void setDelayMode(DelayMode delayMode) {
+        this.delayMode = delayMode;
+    }
+
+    public Duration getDelay() {
+        return delay;
+    }
+
+    public void setDelay(Duration delay) {
+        this.delay = delay;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    public void setSampleSize(int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+
+    public double getMaxHedgePercent() {
+        return maxHedgePercent;
+    }
+
+    public void setMaxHedgePercent(double maxHedgePercent) {
+        this.maxHedgePercent = maxHedgePercent;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+}
@@ -0,0 +1,55 @@
+package com.snkit.springbootresilience.http;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the connection pool state as {@code http.client.pool.*} meters so pool exhaustion
+ * can be read next to the circuit breaker metrics.
+ */
+public class HttpClientPoolMetrics implements MeterBinder {
+
+    private final InstrumentedConnectionManager connectionManager;
+
+    public HttpClientPoolMetrics(InstrumentedConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("http.client.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("Connections currently leased to requests")
+                .register(registry);
+        Gauge.builder("http.client.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("Idle connections kept alive in the pool")
+                .register(registry);
+        Gauge.builder("http.client.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("Requests waiting for a connection")
+                .register(registry);
+        Gauge.builder("http.client.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .description("Maximum number of pooled connections")
+                .register(registry);
+        Gauge.builder("http.client.pool.utilisation", connectionManager, HttpClientPoolMetrics::utilisation)
+                .description("Leased connections as a fraction of the pool maximum")
+                .register(registry);
+        FunctionTimer.builder("http.client.pool.acquire", connectionManager,
+                InstrumentedConnectionManager::getAcquireCount,
+                InstrumentedConnectionManager::getAcquireNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent waiting to lease a connection from the pool")
+                .register(registry);
+        FunctionCounter.builder("http.client.pool.acquire.timeouts", connectionManager,
+                InstrumentedConnectionManager::getAcquireTimeouts)
+                .description("Lease attempts that gave up waiting for a free connection")
+                .register(registry);
+    }
+
+    private static double utilisation(InstrumentedConnectionManager cm) {
+        int max = cm.getTotalStats().getMax();
+        return max == 0 ? 0 : (double) cm.getTotalStats().getLeased() / max;
+    }
+}
@@ -0,0 +1,100 @@
+package com.snkit.springbootresilience.http;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the pooled HTTP client that backs the {@code RestTemplate} used for the upstream calls.
+ */
+@ConfigurationProperties(prefix = "resilience-demo.http-client")
+public class HttpClientPoolProperties {
+
+    /** Maximum number of connections across all routes. */
+    private int maxTotal = 200;
+
+    /** Maximum number of connections to one upstream host:port. */
+    private int maxPerRoute = 50;
+
+    /** Time allowed to establish the TCP connection. */
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    /** Socket read timeout, i.e. the longest silence tolerated while waiting for the response. */
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    /** Time a request may wait for a free connection from the pool before failing. */
+    private Duration connectionRequestTimeout = Duration.ofMillis(500);
+
+    /** Keep-alive used when the upstream does not send a {@code Keep-Alive} header. */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    /** Idle time after which a pooled connection is re-validated before being leased again. */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    /** Idle time after which the background evictor closes a pooled connection. */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Duration getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public Duration getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(Duration validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+}
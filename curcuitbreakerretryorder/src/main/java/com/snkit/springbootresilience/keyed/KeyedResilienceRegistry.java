@@ -0,0 +1,250 @@
+package com.snkit.springbootresilience.keyed;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.configure.CircuitBreakerConfigurationProperties;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.retry.configure.RetryConfigurationProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import com.snkit.springbootresilience.retry.BudgetedRetry;
+import com.snkit.springbootresilience.retry.RetryBudget;
+
+/**
+ * One circuit breaker and one retry per key (upstream host, tenant, path template, whatever the caller derives
+ * from the call), so a bad key trips its own breaker instead of the shared one. Instances are created on first
+ * use in {@link CircuitBreakerRegistry} and {@link RetryRegistry} as {@code <template>:<key>}, with the
+ * configuration of the template instances, and share the retry budget.
+ * <p>
+ * Lookup of an existing key is a plain {@link ConcurrentHashMap#get}. Memory stays bounded as keys churn:
+ * beyond {@code max-instances} the least recently used keys are evicted, and a background sweep evicts keys
+ * idle for {@code idle-ttl} unless their breaker is open or half open. Evicted instances are removed from the
+ * resilience4j registries too, which drops their per-instance meters.
+ */
+@Component
+@EnableConfigurationProperties(KeyedResilienceProperties.class)
+public class KeyedResilienceRegistry implements MeterBinder {
+
+    // last-access updates are coarsened to this, so hot keys do not write the shared field on every call
+    private static final long TOUCH_RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final KeyedResilienceProperties properties;
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final RetryRegistry retryRegistry;
+
+    private final RetryBudget retryBudget;
+
+    private final boolean circuitBreakerOuter;
+
+    private final ConcurrentHashMap<String, KeyedInstances> instances = new ConcurrentHashMap<>();
+
+    private final LongAdder created = new LongAdder();
+
+    private final LongAdder evictedCapacity = new LongAdder();
+
+    private final LongAdder evictedIdle = new LongAdder();
+
+    private ScheduledExecutorService sweeper;
+
+    public KeyedResilienceRegistry(KeyedResilienceProperties properties,
+                                   CircuitBreakerRegistry circuitBreakerRegistry,
+                                   RetryRegistry retryRegistry,
+                                   RetryBudget retryBudget,
+                                   CircuitBreakerConfigurationProperties circuitBreakerProperties,
+                                   RetryConfigurationProperties retryProperties) {
+        this.properties = properties;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.retryRegistry = retryRegistry;
+        this.retryBudget = retryBudget;
+        // same nesting as the annotations of this module: the aspect with the lower order is the outer one
+        this.circuitBreakerOuter = circuitBreakerProperties.getCircuitBreakerAspectOrder() < retryProperties.getRetryAspectOrder();
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "keyed-resilience-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getSweepInterval().toMillis();
+        sweeper.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Runs the call through the breaker and retry of the key, nested like the annotations of this module.
+     * When the retry is the outer one, a rejection by the open breaker is not retried.
+     */
+    public <T> T execute(String key, Supplier<T> call) {
+        KeyedInstances keyed = get(key);
+        if (circuitBreakerOuter) {
+            return CircuitBreaker.decorateSupplier(keyed.circuitBreaker, Retry.decorateSupplier(keyed.retry, call)).get();
+        }
+        return Retry.decorateSupplier(keyed.retry, CircuitBreaker.decorateSupplier(keyed.circuitBreaker, call)).get();
+    }
+
+    public KeyedInstances get(String key) {
+        KeyedInstances keyed = instances.get(key);
+        if (keyed == null) {
+            keyed = instances.computeIfAbsent(key, this::create);
+            if (instances.size() > properties.getMaxInstances()) {
+                evictLeastRecentlyUsed();
+            }
+        }
+        keyed.touch();
+        return keyed;
+    }
+
+    public int size() {
+        return instances.size();
+    }
+
+    private KeyedInstances create(String key) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(
+                properties.getCircuitBreakerTemplate() + ":" + key,
+                circuitBreakerRegistry.circuitBreaker(properties.getCircuitBreakerTemplate()).getCircuitBreakerConfig());
+
+        Retry templateRetry = retryRegistry.retry(properties.getRetryTemplate());
+        RetryConfig template = templateRetry.getRetryConfig();
+        Predicate<Throwable> retryable = template.getExceptionPredicate();
+        RetryConfig config = RetryConfig.from(template)
+                .retryOnException(throwable -> !(throwable instanceof CallNotPermittedException) && retryable.test(throwable))
+                .build();
+        Retry retry = retryRegistry.retry(properties.getRetryTemplate() + ":" + key, config);
+        if (templateRetry instanceof BudgetedRetry) {
+            // the predicate taken over from the template honours the denials of the wrapper
+            retry = BudgetedRetry.of(retry, retryBudget);
+        }
+        retry.getEventPublisher().onRetry(event -> retryBudget.recordRetry());
+
+        created.increment();
+        return new KeyedInstances(key, circuitBreaker, retry);
+    }
+
+    // evicts down to 90% of the bound, so a stream of new keys pays for a sort once every max/10 insertions
+    private synchronized void evictLeastRecentlyUsed() {
+        int max = properties.getMaxInstances();
+        if (instances.size() <= max) {
+            return;
+        }
+        // sorted on a snapshot of the access times, they keep changing while we sort
+        List<Map.Entry<Long, KeyedInstances>> byAge = new ArrayList<>(instances.size());
+        for (KeyedInstances keyed : instances.values()) {
+            byAge.add(new AbstractMap.SimpleImmutableEntry<>(keyed.lastAccess, keyed));
+        }
+        byAge.sort(Map.Entry.comparingByKey());
+        int excess = byAge.size() - Math.max(1, max - max / 10);
+        for (int i = 0; i < excess; i++) {
+            if (remove(byAge.get(i).getValue())) {
+                evictedCapacity.increment();
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long idleSince = System.nanoTime() - properties.getIdleTtl().toNanos();
+        for (Map.Entry<String, KeyedInstances> entry : instances.entrySet()) {
+            KeyedInstances keyed = entry.getValue();
+            CircuitBreaker.State state = keyed.circuitBreaker.getState();
+            if (keyed.lastAccess - idleSince < 0
+                    && state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.HALF_OPEN
+                    && remove(keyed)) {
+                evictedIdle.increment();
+            }
+        }
+    }
+
+    private boolean remove(KeyedInstances keyed) {
+        if (!instances.remove(keyed.key, keyed)) {
+            return false;
+        }
+        circuitBreakerRegistry.remove(keyed.circuitBreaker.getName());
+        retryRegistry.remove(keyed.retry.getName());
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("keyed.instances.active", instances, Map::size)
+                .description("Keys with a live circuit breaker and retry")
+                .register(registry);
+        FunctionCounter.builder("keyed.instances.created", created, LongAdder::sum)
+                .description("Per-key instances created")
+                .register(registry);
+        FunctionCounter.builder("keyed.instances.evicted", evictedCapacity, LongAdder::sum)
+                .tag("reason", "capacity")
+                .description("Per-key instances evicted")
+                .register(registry);
+        FunctionCounter.builder("keyed.instances.evicted", evictedIdle, LongAdder::sum)
+                .tag("reason", "idle")
+                .description("Per-key instances evicted")
+                .register(registry);
+    }
+
+    public static final class KeyedInstances {
+
+        private final String key;
+
+        private final CircuitBreaker circuitBreaker;
+
+        private final Retry retry;
+
+        private volatile long lastAccess = System.nanoTime();
+
+        KeyedInstances(String key, CircuitBreaker circuitBreaker, Retry retry) {
+            this.key = key;
+            this.circuitBreaker = circuitBreaker;
+            this.retry = retry;
+        }
+
+        void touch() {
+            long now = System.nanoTime();
+            if (now - lastAccess > TOUCH_RESOLUTION_NANOS) {
+                lastAccess = now;
+            }
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public CircuitBreaker getCircuitBreaker() {
+            return circuitBreaker;
+        }
+
+        public Retry getRetry() {
+            return retry;
+        }
+    }
+}
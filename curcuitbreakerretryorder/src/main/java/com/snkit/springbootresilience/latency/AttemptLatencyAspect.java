@@ -0,0 +1,47 @@
+package com.snkit.springbootresilience.latency;
+
+import java.util.concurrent.CompletionStage;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Innermost advice, inside the circuit breaker and retry aspects in either ordering, so it runs once per
+ * attempt and times only the upstream work of that attempt.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class AttemptLatencyAspect {
+
+    private final LatencyRecorder latencyRecorder;
+
+    public AttemptLatencyAspect(LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    @Around("execution(* com.snkit.springbootresilience.ResilianceDemoService.getCust())"
+            + " || execution(* com.snkit.springbootresilience.ResilianceDemoService.getCustAsync())"
+            + " || execution(* com.snkit.springbootresilience.ResilianceDemoService.getCustFused())")
+    public Object timeAttempt(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable t) {
+            latencyRecorder.recordAttempt(System.nanoTime() - start, false);
+            throw t;
+        }
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, throwable) ->
+                    latencyRecorder.recordAttempt(System.nanoTime() - start, throwable == null));
+        } else {
+            latencyRecorder.recordAttempt(System.nanoTime() - start, true);
+        }
+        return result;
+    }
+}
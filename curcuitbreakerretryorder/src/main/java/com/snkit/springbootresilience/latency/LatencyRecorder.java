@@ -0,0 +1,125 @@
+package com.snkit.springbootresilience.latency;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.github.resilience4j.circuitbreaker.configure.CircuitBreakerConfigurationProperties;
+import io.github.resilience4j.retry.configure.RetryConfigurationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Latency of getCust at three levels, each a timer with client side percentiles and SLO buckets, tagged with
+ * the aspect ordering of this module:
+ * <ul>
+ * <li>{@code getcust.attempt.latency{outcome=success|failure}} - one upstream attempt, inside the retry</li>
+ * <li>{@code getcust.call.latency{outcome=upstream|fallback|failed}} - the whole decorated call including
+ * retries and their waits</li>
+ * <li>{@code getcust.fallback.latency{fallback=<method>}} - one fallback execution</li>
+ * </ul>
+ * All timers are registered up front, so recording is a lookup of an existing timer and a histogram
+ * update, without allocation on the hot path.
+ */
+@Component
+@EnableConfigurationProperties(LatencyProperties.class)
+public class LatencyRecorder implements MeterBinder {
+
+    // set by a fallback on the thread that produces the call's result, consumed by CallLatencyAspect there
+    private static final ThreadLocal<Boolean> FALLBACK_USED = new ThreadLocal<>();
+
+    static final String[] FALLBACKS = {"getCustFallBack", "getRetryCustFallBack"};
+
+    private final LatencyProperties properties;
+
+    private final String ordering;
+
+    private final Map<String, Timer> fallbackTimers = new ConcurrentHashMap<>();
+
+    private volatile Timer attemptSuccess;
+
+    private volatile Timer attemptFailure;
+
+    private volatile Timer callUpstream;
+
+    private volatile Timer callFallback;
+
+    private volatile Timer callFailed;
+
+    public LatencyRecorder(LatencyProperties properties,
+                           CircuitBreakerConfigurationProperties circuitBreakerProperties,
+                           RetryConfigurationProperties retryProperties) {
+        this.properties = properties;
+        // the aspect with the lower order is the outer one
+        this.ordering = circuitBreakerProperties.getCircuitBreakerAspectOrder() < retryProperties.getRetryAspectOrder()
+                ? "circuitbreaker-retry" : "retry-circuitbreaker";
+    }
+
+    public String getOrdering() {
+        return ordering;
+    }
+
+    public void recordAttempt(long nanos, boolean success) {
+        record(success ? attemptSuccess : attemptFailure, nanos);
+    }
+
+    void recordCall(long nanos, Throwable failure) {
+        boolean fallback = FALLBACK_USED.get() != null;
+        FALLBACK_USED.remove();
+        record(failure != null ? callFailed : fallback ? callFallback : callUpstream, nanos);
+    }
+
+    static void clearFallbackMark() {
+        FALLBACK_USED.remove();
+    }
+
+    /**
+     * Times one fallback execution. A fallback that served a response also marks the current call as served
+     * by a fallback; one that rethrew hands the failure on to the next aspect, which may still retry.
+     */
+    public void recordFallback(String fallback, long nanos, boolean served) {
+        if (served) {
+            FALLBACK_USED.set(Boolean.TRUE);
+        }
+        record(fallbackTimers.get(fallback), nanos);
+    }
+
+    private static void record(Timer timer, long nanos) {
+        // null until the registry has bound the timers
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        attemptSuccess = timer(registry, "getcust.attempt.latency", "One upstream attempt", "outcome", "success");
+        attemptFailure = timer(registry, "getcust.attempt.latency", "One upstream attempt", "outcome", "failure");
+        callUpstream = timer(registry, "getcust.call.latency", "Whole decorated getCust call including retries",
+                "outcome", "upstream");
+        callFallback = timer(registry, "getcust.call.latency", "Whole decorated getCust call including retries",
+                "outcome", "fallback");
+        callFailed = timer(registry, "getcust.call.latency", "Whole decorated getCust call including retries",
+                "outcome", "failed");
+        for (String fallback : FALLBACKS) {
+            fallbackTimers.put(fallback, timer(registry, "getcust.fallback.latency", "One fallback execution",
+                    "fallback", fallback));
+        }
+    }
+
+    private Timer timer(MeterRegistry registry, String name, String description, String tagKey, String tagValue) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("ordering", ordering)
+                .tag(tagKey, tagValue)
+                .publishPercentiles(properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray())
+                .publishPercentileHistogram(properties.isPercentileHistogram())
+                .sla(properties.getSlo().toArray(new Duration[0]))
+                .register(registry);
+    }
+}
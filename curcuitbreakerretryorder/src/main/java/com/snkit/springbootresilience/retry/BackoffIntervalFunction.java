@@ -0,0 +1,58 @@
+package com.snkit.springbootresilience.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.github.resilience4j.core.IntervalFunction;
+
+/**
+ * Wait before retry attempt n (n starts at 1) for the configured {@link RetryPolicyProperties.BackoffType}.
+ * Jitter spreads the retries of all callers and instances, so a degraded upstream is not hit in lockstep.
+ */
+public class BackoffIntervalFunction implements IntervalFunction {
+
+    private final RetryPolicyProperties.BackoffType type;
+
+    private final long initialMillis;
+
+    private final double multiplier;
+
+    private final long maxMillis;
+
+    public BackoffIntervalFunction(RetryPolicyProperties.Backoff backoff) {
+        this.type = backoff.getType();
+        this.initialMillis = backoff.getInitialInterval().toMillis();
+        this.multiplier = backoff.getMultiplier();
+        this.maxMillis = Math.max(initialMillis, backoff.getMaxInterval().toMillis());
+    }
+
+    @Override
+    public Long apply(Integer attempt) {
+        switch (type) {
+            case EXPONENTIAL:
+                return exponential(attempt);
+            case FULL_JITTER:
+                return ThreadLocalRandom.current().nextLong(exponential(attempt) + 1);
+            case DECORRELATED_JITTER:
+                return decorrelated(attempt);
+            case FIXED:
+            default:
+                return initialMillis;
+        }
+    }
+
+    private long exponential(int attempt) {
+        double millis = initialMillis * Math.pow(multiplier, Math.max(0, attempt - 1));
+        return millis >= maxMillis ? maxMillis : (long) millis;
+    }
+
+    // resilience4j only passes the attempt number, not the previous wait, so the chain
+    // sleep = min(max, random(initial, 3 * previous)) is sampled afresh up to this attempt
+    private long decorrelated(int attempt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long sleep = initialMillis;
+        for (int i = 1; i < attempt && sleep < maxMillis; i++) {
+            sleep = Math.min(maxMillis, initialMillis + random.nextLong(Math.max(1, sleep * 3 - initialMillis)));
+        }
+        return sleep;
+    }
+}
@@ -0,0 +1,195 @@
+package com.snkit.springbootresilience.retry;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.vavr.collection.Map;
+
+/**
+ * A retry that asks the {@link RetryBudget} only when a failed attempt would really be followed by another one:
+ * the failure is retryable and attempts are left. The last attempt and non-retryable failures never reach the
+ * budget, so {@code retry.budget.denied} counts retries that were actually skipped and an exhausted call is
+ * reported as exhausted. A denied retry ends the call like a non-retryable exception, without waiting.
+ * <p>
+ * The denial reaches the wrapped retry through its exception predicate, which must be built with
+ * {@link #unlessDenied}; metrics, events and everything else are the wrapped instance's.
+ */
+public final class BudgetedRetry implements Retry {
+
+    // set around the wrapped context's onError, which tests the exception predicate on the same thread
+    private static final ThreadLocal<Boolean> DENIED = new ThreadLocal<>();
+
+    private final Retry delegate;
+
+    private final RetryBudget budget;
+
+    private BudgetedRetry(Retry delegate, RetryBudget budget) {
+        this.delegate = delegate;
+        this.budget = budget;
+    }
+
+    public static Retry of(Retry delegate, RetryBudget budget) {
+        return new BudgetedRetry(delegate, budget);
+    }
+
+    /**
+     * Exception predicate for a retry wrapped by this class: the given one, unless the budget was just denied.
+     */
+    public static Predicate<Throwable> unlessDenied(Predicate<Throwable> retryable) {
+        return throwable -> DENIED.get() == null && retryable.test(throwable);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public <T> Context<T> context() {
+        return new BudgetedContext<>(delegate.context());
+    }
+
+    @Override
+    public <T> AsyncContext<T> asyncContext() {
+        return new BudgetedAsyncContext<>(delegate.asyncContext());
+    }
+
+    @Override
+    public RetryConfig getRetryConfig() {
+        return delegate.getRetryConfig();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return delegate.getTags();
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return delegate.getEventPublisher();
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return delegate.getMetrics();
+    }
+
+    // attempt counts the failed attempt too, like the wrapped context does
+    private boolean denied(Throwable failure, int attempt) {
+        RetryConfig config = delegate.getRetryConfig();
+        return attempt < config.getMaxAttempts() && config.getExceptionPredicate().test(failure) && !budget.canRetry();
+    }
+
+    private final class BudgetedContext<T> implements Context<T> {
+
+        private final Context<T> context;
+
+        private int attempts;
+
+        BudgetedContext(Context<T> context) {
+            this.context = context;
+        }
+
+        // deprecated in favour of onComplete, but still part of the interface and called by older decorators
+        @Override
+        @SuppressWarnings("deprecation")
+        public void onSuccess() {
+            context.onSuccess();
+        }
+
+        @Override
+        public void onComplete() {
+            context.onComplete();
+        }
+
+        @Override
+        public boolean onResult(T result) {
+            boolean retry = context.onResult(result);
+            if (retry) {
+                attempts++;
+            }
+            return retry;
+        }
+
+        @Override
+        public void onError(Exception exception) throws Exception {
+            if (!denied(exception, ++attempts)) {
+                context.onError(exception);
+                return;
+            }
+            DENIED.set(Boolean.TRUE);
+            try {
+                context.onError(exception);
+            } finally {
+                DENIED.remove();
+            }
+        }
+
+        @Override
+        public void onRuntimeError(RuntimeException runtimeException) {
+            if (!denied(runtimeException, ++attempts)) {
+                context.onRuntimeError(runtimeException);
+                return;
+            }
+            DENIED.set(Boolean.TRUE);
+            try {
+                context.onRuntimeError(runtimeException);
+            } finally {
+                DENIED.remove();
+            }
+        }
+    }
+
+    private final class BudgetedAsyncContext<T> implements AsyncContext<T> {
+
+        private final AsyncContext<T> context;
+
+        // attempts may complete on different threads
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        BudgetedAsyncContext(AsyncContext<T> context) {
+            this.context = context;
+        }
+
+        // deprecated in favour of onComplete, but still part of the interface and called by older decorators
+        @Override
+        @SuppressWarnings("deprecation")
+        public void onSuccess() {
+            context.onSuccess();
+        }
+
+        @Override
+        public void onComplete() {
+            context.onComplete();
+        }
+
+        @Override
+        public long onResult(T result) {
+            long delay = context.onResult(result);
+            if (delay >= 0) {
+                attempts.incrementAndGet();
+            }
+            return delay;
+        }
+
+        @Override
+        public long onError(Throwable throwable) {
+            // tested like the wrapped context does, on the cause of a wrapped failure
+            Throwable failure = (throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                    && throwable.getCause() != null ? throwable.getCause() : throwable;
+            if (!denied(failure, attempts.incrementAndGet())) {
+                return context.onError(throwable);
+            }
+            DENIED.set(Boolean.TRUE);
+            try {
+                return context.onError(throwable);
+            } finally {
+                DENIED.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.snkit.springbootresilience.retry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Caps retries at a share of the recent successful upstream traffic. Successes and retries are counted in
+ * one-second buckets of striped adders; a retry is allowed while
+ * {@code ratio * successes + minRetriesPerSecond * window - retries >= 1} over the window.
+ * Every instance limits itself to the same share of its own traffic, so the cluster as a whole never
+ * retries more than that share either.
+ */
+public class RetryBudget implements MeterBinder {
+
+    private final boolean enabled;
+
+    private final double ratio;
+
+    private final double minRetries;
+
+    private final Bucket[] buckets;
+
+    private final LongAdder denied = new LongAdder();
+
+    public RetryBudget(RetryPolicyProperties.Budget budget) {
+        this.enabled = budget.isEnabled();
+        this.ratio = budget.getRatio();
+        int windowSeconds = (int) Math.max(1, budget.getWindow().getSeconds());
+        this.minRetries = budget.getMinRetriesPerSecond() * windowSeconds;
+        this.buckets = new Bucket[windowSeconds];
+        for (int i = 0; i < windowSeconds; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    public void recordSuccess() {
+        if (enabled) {
+            current().successes.increment();
+        }
+    }
+
+    public void recordRetry() {
+        if (enabled) {
+            current().retries.increment();
+        }
+    }
+
+    /**
+     * Whether one more retry fits into the budget; counts a denial otherwise.
+     */
+    public boolean canRetry() {
+        if (!enabled || remaining() >= 1) {
+            return true;
+        }
+        denied.increment();
+        return false;
+    }
+
+    public double remaining() {
+        long now = currentSecond();
+        long successes = 0;
+        long retries = 0;
+        for (Bucket bucket : buckets) {
+            if (now - bucket.second < buckets.length) {
+                successes += bucket.successes.sum();
+                retries += bucket.retries.sum();
+            }
+        }
+        return ratio * successes + minRetries - retries;
+    }
+
+    private Bucket current() {
+        long second = currentSecond();
+        Bucket bucket = buckets[(int) (second % buckets.length)];
+        if (bucket.second != second) {
+            synchronized (bucket) {
+                if (bucket.second != second) {
+                    bucket.successes.reset();
+                    bucket.retries.reset();
+                    bucket.second = second;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("retry.budget.remaining", this, budget -> Math.max(0, budget.remaining()))
+                .description("Retries still allowed by the retry budget in the current window")
+                .register(registry);
+        FunctionCounter.builder("retry.budget.denied", denied, LongAdder::sum)
+                .description("Retries skipped because the retry budget was used up")
+                .register(registry);
+    }
+
+    private static final class Bucket {
+
+        volatile long second = -1;
+
+        final LongAdder successes = new LongAdder();
+
+        final LongAdder retries = new LongAdder();
+    }
+}
@@ -0,0 +1,60 @@
+package com.snkit.springbootresilience.retry;
+
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+
+/**
+ * Replaces the configured resilience4j retry instances, before anything else sees the registry, with copies
+ * that wait according to {@link BackoffIntervalFunction} and only retry while the {@link RetryBudget} allows it.
+ * A denied retry makes the exception non-retryable, so the call goes straight to the retry fallback without waiting;
+ * see {@link BudgetedRetry} for why the budget is not asked from the exception predicate itself.
+ */
+@Configuration
+@EnableConfigurationProperties(RetryPolicyProperties.class)
+public class RetryPolicyConfiguration {
+
+    @Bean
+    public RetryBudget retryBudget(RetryPolicyProperties properties) {
+        return new RetryBudget(properties.getBudget());
+    }
+
+    @Bean
+    public static BeanPostProcessor retryPolicyPostProcessor(ObjectProvider<RetryPolicyProperties> properties,
+                                                             ObjectProvider<RetryBudget> retryBudget) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof RetryRegistry) {
+                    apply((RetryRegistry) bean, properties.getObject(), retryBudget.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static void apply(RetryRegistry registry, RetryPolicyProperties properties, RetryBudget budget) {
+        BackoffIntervalFunction backoff = new BackoffIntervalFunction(properties.getBackoff());
+        for (String name : properties.getInstances()) {
+            RetryConfig configured = registry.retry(name).getRetryConfig();
+            Predicate<Throwable> retryable = configured.getExceptionPredicate();
+            RetryConfig config = RetryConfig.custom()
+                    .maxAttempts(configured.getMaxAttempts())
+                    .retryOnResult(configured.getResultPredicate())
+                    .retryOnException(BudgetedRetry.unlessDenied(retryable))
+                    .intervalFunction(backoff)
+                    .build();
+            Retry retry = BudgetedRetry.of(Retry.of(name, config), budget);
+            retry.getEventPublisher().onRetry(event -> budget.recordRetry());
+            registry.replace(name, retry);
+        }
+    }
+}
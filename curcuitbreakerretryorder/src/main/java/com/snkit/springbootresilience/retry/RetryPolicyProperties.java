@@ -0,0 +1,137 @@
+package com.snkit.springbootresilience.retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Back-off and retry budget applied on top of the {@code resilience4j.retry} instances listed in {@link #instances}.
+ */
+@ConfigurationProperties(prefix = "resilience-demo.retry")
+public class RetryPolicyProperties {
+
+    /** resilience4j retry instances that get the back-off and the budget. */
+    private List<String> instances = new ArrayList<>();
+
+    private final Backoff backoff = new Backoff();
+
+    private final Budget budget = new Budget();
+
+    public List<String> getInstances() {
+        return instances;
+    }
+
+    public void setInstances(List<String> instances) {
+        this.instances = instances;
+    }
+
+    public Backoff getBackoff() {
+        return backoff;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    public enum BackoffType {
+        /** always initial-interval, i.e. the plain resilience4j wait-duration behaviour */
+        FIXED,
+        /** initial-interval * multiplier^(attempt-1), capped at max-interval */
+        EXPONENTIAL,
+        /** uniformly random between 0 and the exponential value */
+        FULL_JITTER,
+        /** uniformly random between initial-interval and three times the previous wait, capped at max-interval */
+        DECORRELATED_JITTER
+    }
+
+    public static class Backoff {
+
+        private BackoffType type = BackoffType.DECORRELATED_JITTER;
+
+        private Duration initialInterval = Duration.ofMillis(200);
+
+        private double multiplier = 2.0;
+
+        private Duration maxInterval = Duration.ofSeconds(5);
+
+        public BackoffType getType() {
+            return type;
+        }
+
+        public void setType(BackoffType type) {
+            this.type = type;
+        }
+
+        public Duration getInitialInterval() {
+            return initialInterval;
+        }
+
+        public void setInitialInterval(Duration initialInterval) {
+            this.initialInterval = initialInterval;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        public Duration getMaxInterval() {
+            return maxInterval;
+        }
+
+        public void setMaxInterval(Duration maxInterval) {
+            this.maxInterval = maxInterval;
+        }
+    }
+
+    public static class Budget {
+
+        private boolean enabled = true;
+
+        /** Retries allowed per successful upstream call within the window, e.g. 0.2 = retries up to 20% of successes. */
+        private double ratio = 0.2;
+
+        /** Retries always allowed per second of window, so a quiet instance can still retry. */
+        private double minRetriesPerSecond = 1;
+
+        /** Length of the sliding window the ratio is computed over, in whole seconds. */
+        private Duration window = Duration.ofSeconds(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(double ratio) {
+            this.ratio = ratio;
+        }
+
+        public double getMinRetriesPerSecond() {
+            return minRetriesPerSecond;
+        }
+
+        public void setMinRetriesPerSecond(double minRetriesPerSecond) {
+            this.minRetriesPerSecond = minRetriesPerSecond;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.snkit.springbootresilience.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.snkit.springbootresilience.SpringbootresilienceApplication;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Two application contexts in one JVM sharing the getEmploye breaker over the in-memory transport.
+ */
+class ClusterStateCoordinatorTest {
+
+    private static final String BREAKER = "getEmploye";
+
+    private ConfigurableApplicationContext first;
+
+    private ConfigurableApplicationContext second;
+
+    @BeforeEach
+    void startNodes() {
+        first = startNode("node-a");
+        second = startNode("node-b");
+    }
+
+    @AfterEach
+    void stopNodes() {
+        if (second != null) {
+            second.close();
+        }
+        if (first != null) {
+            first.close();
+        }
+    }
+
+    @Test
+    void opensEarlyOnPeerQuorumAndFollowsThePeersRecovery() throws InterruptedException {
+        CircuitBreaker opener = breaker(first);
+        CircuitBreaker follower = breaker(second);
+
+        // one live peer open on its own failures is a quorum at the default peer-open-ratio
+        opener.transitionToOpenState();
+        await(() -> follower.getState() == CircuitBreaker.State.OPEN);
+        assertEquals(1.0, counter(second, "cluster.breaker.early.opens", "peer-open"));
+        assertEquals(0.0, counter(first, "cluster.breaker.early.opens", "peer-open"));
+
+        // the opener's half-open probe must be gossiped before its close for the follower to see a recovery
+        opener.transitionToHalfOpenState();
+        Thread.sleep(300);
+        opener.transitionToClosedState();
+        await(() -> follower.getState() == CircuitBreaker.State.HALF_OPEN);
+        assertEquals(1.0, second.getBean(MeterRegistry.class).get("cluster.breaker.followed.recoveries").functionCounter().count());
+
+        // the follower's open predates the recovery, so it does not reopen the recovered node
+        assertEquals(CircuitBreaker.State.CLOSED, opener.getState());
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(SpringbootresilienceApplication.class)
+                .run("--server.port=0",
+                        "--resilience-demo.cluster.enabled=true",
+                        "--resilience-demo.cluster.transport=in-memory",
+                        "--resilience-demo.cluster.group=" + ClusterStateCoordinatorTest.class.getName(),
+                        "--resilience-demo.cluster.node-id=" + nodeId,
+                        "--resilience-demo.cluster.gossip-interval=50ms",
+                        "--resilience-demo.cluster.half-open-stagger=0s");
+    }
+
+    private static CircuitBreaker breaker(ConfigurableApplicationContext context) {
+        return context.getBean(CircuitBreakerRegistry.class).circuitBreaker(BREAKER);
+    }
+
+    private static double counter(ConfigurableApplicationContext context, String name, String reason) {
+        return context.getBean(MeterRegistry.class).get(name).tag("reason", reason).functionCounter().count();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            Thread.sleep(20);
+        }
+    }
+}
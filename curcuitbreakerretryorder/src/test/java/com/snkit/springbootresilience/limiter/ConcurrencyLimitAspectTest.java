@@ -0,0 +1,127 @@
+package com.snkit.springbootresilience.limiter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.snkit.springbootresilience.SpringbootresilienceApplication;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Concurrent /getCust calls against a slow upstream with request coalescing on: the limiter admits before the
+ * callers are coalesced, so the ones over the limit are shed instead of waiting for the shared call.
+ */
+class ConcurrencyLimitAspectTest {
+
+    private static final int LIMIT = 4;
+
+    private static final int CALLERS = 12;
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    private HttpServer upstream;
+
+    private ConfigurableApplicationContext context;
+
+    @BeforeEach
+    void start() throws IOException {
+        // the address of ResilianceDemoService.UPSTREAM_URL
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 8070), 0);
+        upstream.setExecutor(Executors.newCachedThreadPool());
+        upstream.createContext("/getEmploye", exchange -> {
+            upstreamCalls.incrementAndGet();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"name\":\"emp\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+        context = new SpringApplicationBuilder(SpringbootresilienceApplication.class)
+                .run("--server.port=0",
+                        "--resilience-demo.coalescing.enabled=true",
+                        "--resilience-demo.cache.enabled=false",
+                        "--resilience-demo.concurrency-limit.initial-limit=" + LIMIT,
+                        "--resilience-demo.concurrency-limit.min-limit=" + LIMIT,
+                        "--resilience-demo.concurrency-limit.max-limit=" + LIMIT);
+    }
+
+    @AfterEach
+    void stop() {
+        if (context != null) {
+            context.close();
+        }
+        upstream.stop(0);
+    }
+
+    @Test
+    void shedsCallersOverTheLimitBeforeTheyAreCoalesced() throws Exception {
+        String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/getCust";
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<String>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                responses.add(callers.submit(() -> {
+                    go.await();
+                    return get(url);
+                }));
+            }
+            go.countDown();
+            for (Future<String> response : responses) {
+                response.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        double rejected = context.getBean(MeterRegistry.class).get("concurrency.rejected").functionCounter().count();
+        assertTrue(rejected > 0, "no call was shed");
+        assertTrue(rejected <= CALLERS - 1, "every call was shed");
+        // the admitted callers still share one upstream call
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    private static String get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            StringBuilder body = new StringBuilder();
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                body.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+            }
+            return body.toString();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
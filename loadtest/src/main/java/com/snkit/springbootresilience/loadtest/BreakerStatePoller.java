@@ -0,0 +1,187 @@
+package com.snkit.springbootresilience.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Samples the target's breaker state from {@code /actuator/prometheus} (the resilience4j state gauge is 1 for
+ * the current state in both resilience4j versions) and keeps every change as a timeline entry. The same scrape
+ * feeds {@link ResourceUsage}: the target's CPU, heap and live threads next to the requests in flight.
+ */
+class BreakerStatePoller {
+
+    private static final String STATE_GAUGE = "resilience4j_circuitbreaker_state{";
+
+    private static final String CPU_USAGE = "process_cpu_usage ";
+
+    private static final String CPU_COUNT = "system_cpu_count ";
+
+    private static final String HEAP_USED = "jvm_memory_used_bytes{area=\"heap\"";
+
+    private static final String LIVE_THREADS = "jvm_threads_live_threads ";
+
+    static final class Transition {
+
+        final long atMillis;
+
+        final String state;
+
+        Transition(long atMillis, String state) {
+            this.atMillis = atMillis;
+            this.state = state;
+        }
+    }
+
+    /**
+     * Averages over the run. Heap used includes garbage not collected yet, so the heap per in-flight request,
+     * the growth over the heap of the first sample divided by the mean requests in flight, is a rough
+     * comparison between targets rather than an exact size; thread stacks are outside the heap, hence the threads.
+     */
+    static final class ResourceUsage {
+
+        int samples;
+
+        double cpuCoresSum;
+
+        double heapBytesSum;
+
+        double inFlightSum;
+
+        double baselineHeapBytes = -1;
+
+        int peakThreads;
+
+        double meanCpuCores() {
+            return samples == 0 ? 0 : cpuCoresSum / samples;
+        }
+
+        double meanHeapBytes() {
+            return samples == 0 ? 0 : heapBytesSum / samples;
+        }
+
+        double meanInFlight() {
+            return samples == 0 ? 0 : inFlightSum / samples;
+        }
+
+        /** -1 when nothing was in flight or the target exposes no heap gauge. */
+        double heapBytesPerInFlight() {
+            return meanInFlight() < 1 || baselineHeapBytes < 0 ? -1
+                    : Math.max(0, meanHeapBytes() - baselineHeapBytes) / meanInFlight();
+        }
+    }
+
+    private final CloseableHttpClient httpClient;
+
+    private final String prometheusUrl;
+
+    private final List<Transition> timeline = Collections.synchronizedList(new ArrayList<>());
+
+    private final IntSupplier inFlight;
+
+    private final ResourceUsage resources = new ResourceUsage();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "breaker-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile String lastState;
+
+    private long startNanos;
+
+    BreakerStatePoller(CloseableHttpClient httpClient, String targetUrl, IntSupplier inFlight) {
+        this.httpClient = httpClient;
+        this.prometheusUrl = targetUrl + "/actuator/prometheus";
+        this.inFlight = inFlight;
+    }
+
+    void start(long startNanos, long intervalMillis) {
+        this.startNanos = startNanos;
+        scheduler.scheduleAtFixedRate(this::poll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    List<Transition> stop() {
+        scheduler.shutdownNow();
+        synchronized (timeline) {
+            return new ArrayList<>(timeline);
+        }
+    }
+
+    // only read after stop(); the samples are written by the poller thread alone
+    ResourceUsage resources() {
+        return resources;
+    }
+
+    private void poll() {
+        String state;
+        try (CloseableHttpResponse response = httpClient.execute(new HttpGet(prometheusUrl))) {
+            String scrape = EntityUtils.toString(response.getEntity());
+            state = currentState(scrape);
+            sample(scrape);
+        } catch (IOException e) {
+            state = "unreachable";
+        }
+        if (state != null && !state.equals(lastState)) {
+            lastState = state;
+            timeline.add(new Transition(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), state));
+        }
+    }
+
+    private static String currentState(String scrape) {
+        for (String line : scrape.split("\n")) {
+            if (line.startsWith(STATE_GAUGE) && line.trim().endsWith(" 1.0")) {
+                int from = line.indexOf("state=\"") + "state=\"".length();
+                return line.substring(from, line.indexOf('"', from));
+            }
+        }
+        return null;
+    }
+
+    private void sample(String scrape) {
+        double cpuUsage = -1;
+        double cpuCount = 1;
+        double heap = 0;
+        boolean heapSeen = false;
+        int threads = 0;
+        for (String line : scrape.split("\n")) {
+            if (line.startsWith(CPU_USAGE)) {
+                cpuUsage = value(line);
+            } else if (line.startsWith(CPU_COUNT)) {
+                cpuCount = value(line);
+            } else if (line.startsWith(HEAP_USED)) {
+                heap += value(line);
+                heapSeen = true;
+            } else if (line.startsWith(LIVE_THREADS)) {
+                threads = (int) value(line);
+            }
+        }
+        if (cpuUsage < 0) {
+            return;
+        }
+        // process_cpu_usage is a share of all cores
+        resources.cpuCoresSum += cpuUsage * cpuCount;
+        resources.heapBytesSum += heap;
+        resources.inFlightSum += inFlight.getAsInt();
+        if (heapSeen && resources.baselineHeapBytes < 0) {
+            resources.baselineHeapBytes = heap;
+        }
+        resources.peakThreads = Math.max(resources.peakThreads, threads);
+        resources.samples++;
+    }
+
+    private static double value(String line) {
+        return Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1).trim());
+    }
+}
@@ -0,0 +1,110 @@
+package com.snkit.springbootresilience.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Open-model load: request i is sent at {@code start + i / rate} regardless of how many earlier requests are
+ * still waiting, which is how independent clients behave when the target slows down.
+ */
+class FixedRateLoadGenerator {
+
+    private static final String FALLBACK_PREFIX = "Response from ";
+
+    private static final String STALE_PREFIX = "Response from stale cache";
+
+    private final LoadTestProperties properties;
+
+    private final CloseableHttpClient httpClient;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    FixedRateLoadGenerator(LoadTestProperties properties, CloseableHttpClient httpClient) {
+        this.properties = properties;
+        this.httpClient = httpClient;
+    }
+
+    /** Requests sent and not answered yet. */
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    RunResult run(String name, String targetUrl, long startNanos) throws InterruptedException {
+        int total = (int) (properties.getRate() * properties.getDuration().getSeconds());
+        RunResult result = new RunResult(name, total);
+        String url = targetUrl + properties.getPath();
+        AtomicInteger threadIds = new AtomicInteger();
+        ThreadPoolExecutor senders = new ThreadPoolExecutor(properties.getMaxConcurrency(), properties.getMaxConcurrency(),
+                10, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "load-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        senders.allowCoreThreadTimeOut(true);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / properties.getRate();
+        for (int i = 0; i < total; i++) {
+            long scheduledAt = startNanos + i * intervalNanos;
+            long wait;
+            while ((wait = scheduledAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            try {
+                senders.execute(() -> send(url, scheduledAt, result));
+                result.sent++;
+            } catch (RejectedExecutionException e) {
+                result.count("generator_saturated");
+            }
+        }
+        senders.shutdown();
+        senders.awaitTermination(properties.getTimeout().toMillis() + 5000, TimeUnit.MILLISECONDS);
+        result.wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return result;
+    }
+
+    private void send(String url, long scheduledAt, RunResult result) {
+        String outcome;
+        inFlight.incrementAndGet();
+        try (CloseableHttpResponse response = httpClient.execute(new HttpGet(url))) {
+            int status = response.getStatusLine().getStatusCode();
+            String body = response.getEntity() == null ? ""
+                    : EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            outcome = classify(status, body);
+        } catch (IOException e) {
+            outcome = "client_error:" + e.getClass().getSimpleName();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        result.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt), outcome);
+    }
+
+    /**
+     * upstream for a real answer, stale for a cached one served by a fallback, fallback:&lt;which&gt; for the
+     * fixed fallback texts of either module, http_&lt;status&gt; for an error the client saw.
+     */
+    static String classify(int status, String body) {
+        if (status != 200) {
+            return "http_" + status;
+        }
+        if (body.startsWith(STALE_PREFIX)) {
+            return "stale";
+        }
+        if (body.startsWith(FALLBACK_PREFIX)) {
+            int end = body.indexOf(" - ");
+            String which = body.substring(FALLBACK_PREFIX.length(), end > 0 ? end : body.length()).trim();
+            return "fallback:" + which;
+        }
+        return "upstream";
+    }
+}
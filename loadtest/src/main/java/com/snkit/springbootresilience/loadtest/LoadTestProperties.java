@@ -0,0 +1,107 @@
+package com.snkit.springbootresilience.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+
+    /** Run name to base URL, run in this order. */
+    private Map<String, String> targets = new LinkedHashMap<>();
+
+    private String path = "/getCust";
+
+    /** Arrival rate in requests per second. */
+    private int rate = 50;
+
+    private Duration duration = Duration.ofSeconds(90);
+
+    /** Client side timeout of one request. */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /** Requests allowed in flight at once; arrivals beyond it are counted as generator_saturated. */
+    private int maxConcurrency = 2000;
+
+    /** upstream-stub base URL, for /reset before and /stats after each run. */
+    private String stubUrl = "http://localhost:8070";
+
+    /** How often the target's breaker state is sampled. */
+    private Duration pollInterval = Duration.ofMillis(250);
+
+    private String reportDir = "target/loadtest";
+
+    public Map<String, String> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(Map<String, String> targets) {
+        this.targets = targets;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public String getStubUrl() {
+        return stubUrl;
+    }
+
+    public void setStubUrl(String stubUrl) {
+        this.stubUrl = stubUrl;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public String getReportDir() {
+        return reportDir;
+    }
+
+    public void setReportDir(String reportDir) {
+        this.reportDir = reportDir;
+    }
+}
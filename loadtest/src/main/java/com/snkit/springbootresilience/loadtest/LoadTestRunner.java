@@ -0,0 +1,189 @@
+package com.snkit.springbootresilience.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs every configured target in turn against a freshly reset stub, then prints the runs side by side and
+ * writes one JSON report per run to {@code report-dir}.
+ */
+@Component
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private static final String[] PERCENTILE_LABELS = {"p50", "p99", "p99.9"};
+
+    private final LoadTestProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    public LoadTestRunner(LoadTestProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        int timeoutMillis = (int) properties.getTimeout().toMillis();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(timeoutMillis)
+                .setSocketTimeout(timeoutMillis)
+                .setConnectionRequestTimeout(timeoutMillis)
+                .build();
+        List<RunResult> results = new ArrayList<>();
+        try (CloseableHttpClient loadClient = HttpClients.custom()
+                .setMaxConnTotal(properties.getMaxConcurrency())
+                .setMaxConnPerRoute(properties.getMaxConcurrency())
+                .setDefaultRequestConfig(requestConfig)
+                .disableAutomaticRetries()
+                .build();
+             CloseableHttpClient controlClient = HttpClients.custom()
+                     .setDefaultRequestConfig(requestConfig)
+                     .build()) {
+            FixedRateLoadGenerator generator = new FixedRateLoadGenerator(properties, loadClient);
+            for (Map.Entry<String, String> target : properties.getTargets().entrySet()) {
+                logger.info("Running {} against {} at {} req/s for {}", target.getKey(), target.getValue(),
+                        properties.getRate(), properties.getDuration());
+                boolean stubReset = upstreamRequests(controlClient, "/reset") >= 0;
+                BreakerStatePoller poller = new BreakerStatePoller(controlClient, target.getValue(), generator::inFlight);
+                long startNanos = System.nanoTime();
+                poller.start(startNanos, properties.getPollInterval().toMillis());
+                RunResult result = generator.run(target.getKey(), target.getValue(), startNanos);
+                result.breakerTimeline = poller.stop();
+                result.resources = poller.resources();
+                if (stubReset) {
+                    result.upstreamRequests = upstreamRequests(controlClient, "/stats");
+                }
+                results.add(result);
+                write(result);
+            }
+        }
+        logger.info("\n{}", summary(results));
+    }
+
+    // -1 when the stub is not reachable; /reset carries no count, only its success matters
+    private long upstreamRequests(CloseableHttpClient client, String path) {
+        try (CloseableHttpResponse response = client.execute(new HttpGet(properties.getStubUrl() + path))) {
+            JsonNode stats = objectMapper.readTree(EntityUtils.toString(response.getEntity()));
+            return stats.has("requests") ? stats.get("requests").asLong() : 0;
+        } catch (IOException e) {
+            logger.warn("upstream-stub not reachable at {}, amplification will be missing: {}",
+                    properties.getStubUrl(), e.toString());
+            return -1;
+        }
+    }
+
+    private void write(RunResult result) throws IOException {
+        File dir = new File(properties.getReportDir());
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("cannot create " + dir);
+        }
+        File file = new File(dir, "loadtest-" + result.name + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report(result));
+        logger.info("Wrote {}", file);
+    }
+
+    private Map<String, Object> report(RunResult result) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("target", result.name);
+        report.put("rate", properties.getRate());
+        report.put("durationSeconds", properties.getDuration().getSeconds());
+        report.put("sent", result.sent);
+        report.put("completed", result.completed());
+        report.put("throughput", result.throughput());
+        long[] percentiles = result.percentilesMicros(PERCENTILES);
+        Map<String, Double> latency = new LinkedHashMap<>();
+        latency.put("p50Millis", percentiles[0] / 1000.0);
+        latency.put("p99Millis", percentiles[1] / 1000.0);
+        latency.put("p999Millis", percentiles[2] / 1000.0);
+        report.put("latency", latency);
+        report.put("upstreamRequests", result.upstreamRequests);
+        report.put("amplification", result.amplification());
+        report.put("outcomes", result.outcomes());
+        BreakerStatePoller.ResourceUsage resources = result.resources;
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("meanCpuCores", resources.meanCpuCores());
+        usage.put("throughputPerCore", result.throughputPerCore());
+        usage.put("meanHeapMb", resources.meanHeapBytes() / (1024 * 1024));
+        usage.put("meanInFlight", resources.meanInFlight());
+        usage.put("heapKbPerInFlight", resources.heapBytesPerInFlight() < 0 ? -1 : resources.heapBytesPerInFlight() / 1024);
+        usage.put("peakLiveThreads", resources.peakThreads);
+        report.put("resources", usage);
+        List<Map<String, Object>> timeline = new ArrayList<>();
+        for (BreakerStatePoller.Transition transition : result.breakerTimeline) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("atMillis", transition.atMillis);
+            entry.put("state", transition.state);
+            timeline.add(entry);
+        }
+        report.put("breakerTimeline", timeline);
+        return report;
+    }
+
+    private static String summary(List<RunResult> results) {
+        StringBuilder table = new StringBuilder();
+        row(table, "", results, result -> result.name);
+        row(table, "sent", results, result -> String.valueOf(result.sent));
+        row(table, "throughput (req/s)", results, result -> String.format("%.1f", result.throughput()));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            int index = i;
+            row(table, PERCENTILE_LABELS[i] + " (ms)", results,
+                    result -> String.format("%.1f", result.percentilesMicros(PERCENTILES)[index] / 1000.0));
+        }
+        row(table, "throughput / core (req/s)", results,
+                result -> result.throughputPerCore() < 0 ? "n/a" : String.format("%.1f", result.throughputPerCore()));
+        row(table, "mean requests in flight", results, result -> String.format("%.1f", result.resources.meanInFlight()));
+        row(table, "heap per in-flight request (KiB)", results, result -> result.resources.heapBytesPerInFlight() < 0 ? "n/a"
+                : String.format("%.1f", result.resources.heapBytesPerInFlight() / 1024));
+        row(table, "peak live threads", results, result -> String.valueOf(result.resources.peakThreads));
+        row(table, "upstream calls / request", results,
+                result -> result.amplification() < 0 ? "n/a" : String.format("%.2f", result.amplification()));
+        TreeSet<String> outcomes = new TreeSet<>();
+        results.forEach(result -> outcomes.addAll(result.outcomes().keySet()));
+        for (String outcome : outcomes) {
+            row(table, outcome, results, result -> String.valueOf(result.outcomes().getOrDefault(outcome, 0L)));
+        }
+        row(table, "breaker timeline", results, result -> {
+            StringBuilder timeline = new StringBuilder();
+            for (BreakerStatePoller.Transition transition : result.breakerTimeline) {
+                timeline.append(String.format("%.1fs:%s ", transition.atMillis / 1000.0, transition.state));
+            }
+            return timeline.toString().trim();
+        });
+        return table.toString();
+    }
+
+    private static void row(StringBuilder table, String label, List<RunResult> results,
+                            Function<RunResult, String> cell) {
+        table.append(String.format("%-40s", label));
+        for (RunResult result : results) {
+            table.append(String.format(" | %-32s", cell.apply(result)));
+        }
+        table.append('\n');
+    }
+}
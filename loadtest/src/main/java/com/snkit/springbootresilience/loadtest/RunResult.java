@@ -0,0 +1,87 @@
+package com.snkit.springbootresilience.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome of one run against one target. Latencies are measured from the scheduled send time, so a
+ * stalled target shows up in the percentiles instead of silently lowering the arrival rate.
+ */
+class RunResult {
+
+    final String name;
+
+    final long[] latenciesMicros;
+
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    long sent;
+
+    long wallMillis;
+
+    long upstreamRequests = -1;
+
+    List<BreakerStatePoller.Transition> breakerTimeline;
+
+    BreakerStatePoller.ResourceUsage resources;
+
+    RunResult(String name, int expectedRequests) {
+        this.name = name;
+        this.latenciesMicros = new long[expectedRequests];
+    }
+
+    void record(long latencyMicros, String outcome) {
+        int index = completed.getAndIncrement();
+        if (index < latenciesMicros.length) {
+            latenciesMicros[index] = latencyMicros;
+        }
+        count(outcome);
+    }
+
+    void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    int completed() {
+        return Math.min(completed.get(), latenciesMicros.length);
+    }
+
+    Map<String, Long> outcomes() {
+        Map<String, Long> sorted = new TreeMap<>();
+        outcomes.forEach((key, value) -> sorted.put(key, value.sum()));
+        return sorted;
+    }
+
+    long[] percentilesMicros(double... percentiles) {
+        long[] sorted = Arrays.copyOf(latenciesMicros, completed());
+        Arrays.sort(sorted);
+        long[] values = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            if (sorted.length > 0) {
+                int index = (int) Math.ceil(percentiles[i] * sorted.length) - 1;
+                values[i] = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+            }
+        }
+        return values;
+    }
+
+    double throughput() {
+        return wallMillis == 0 ? 0 : completed() * 1000.0 / wallMillis;
+    }
+
+    /** Requests per second per core the target kept busy, -1 without CPU samples. */
+    double throughputPerCore() {
+        return resources == null || resources.meanCpuCores() <= 0 ? -1 : throughput() / resources.meanCpuCores();
+    }
+
+    double amplification() {
+        return upstreamRequests < 0 || sent == 0 ? -1 : (double) upstreamRequests / sent;
+    }
+}
@@ -0,0 +1,21 @@
+package com.snkit.springbootresilience;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+public class ResilianceDemoController {
+
+	@Autowired
+	ResilianceDemoService resilianceDemoService;
+
+	// same contract as the blocking modules: the upstream body, or the text of the fallback that answered
+	@GetMapping(value = "/getCust")
+	public Mono<String> getcustByNames() {
+		return resilianceDemoService.getCust();
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.snkit.springbootresilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.configure.CircuitBreakerConfigurationProperties;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.retry.configure.RetryConfigurationProperties;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * getCust on WebClient, guarded by the resilience4j Reactor operators instead of the annotations: nothing
+ * blocks, retry waits are timer signals and an in-flight call holds a connection and a few objects, no thread.
+ * <p>
+ * The operators are nested like the annotation aspects of the other modules, chosen by the same
+ * {@code circuit-breaker-aspect-order} and {@code retry-aspect-order} properties (the lower one is outer):
+ * <ul>
+ * <li>CircuitBreaker(Retry(attempt)), like curcuitbreakerretryorder: the breaker records one outcome per call,
+ * after the retries; an exhausted call and a rejected one both end in getCustFallBack</li>
+ * <li>Retry(CircuitBreaker(attempt)), like retrycurcuitbreakerorder: the breaker records every attempt; a
+ * rejection ends the call in the breaker fallback without being retried, an exhausted call in the retry fallback</li>
+ * </ul>
+ * Either way the time limiter bounds each attempt and the bulkhead, outermost, caps the calls in flight.
+ * The instances are looked up on every call, so replaced registry entries take effect at once.
+ */
+@Service
+public class ResilianceDemoService {
+
+    public static final String UPSTREAM_URL = "http://localhost:8070/getEmploye";
+
+    private static final String CIRCUIT_BREAKER = "getEmploye";
+
+    private static final String RETRY = "getEmployetretry";
+
+    private static final String TIME_LIMITER = "getEmploye";
+
+    private static final String BULKHEAD = "getEmploye";
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilianceDemoService.class);
+
+    private final WebClient webClient;
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final RetryRegistry retryRegistry;
+
+    private final TimeLimiterRegistry timeLimiterRegistry;
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private final boolean circuitBreakerOuter;
+
+    public ResilianceDemoService(@Qualifier("upstreamWebClient") WebClient webClient,
+                                 CircuitBreakerRegistry circuitBreakerRegistry,
+                                 RetryRegistry retryRegistry,
+                                 TimeLimiterRegistry timeLimiterRegistry,
+                                 BulkheadRegistry bulkheadRegistry,
+                                 CircuitBreakerConfigurationProperties circuitBreakerProperties,
+                                 RetryConfigurationProperties retryProperties) {
+        this.webClient = webClient;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.retryRegistry = retryRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        // the aspect with the lower order is the outer one
+        this.circuitBreakerOuter = circuitBreakerProperties.getCircuitBreakerAspectOrder() < retryProperties.getRetryAspectOrder();
+    }
+
+    public boolean isCircuitBreakerOuter() {
+        return circuitBreakerOuter;
+    }
+
+    public Mono<String> getCust() {
+        logger.info(" Entring into getCust  ResilianceDemoService ");
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER);
+        Retry retry = retryRegistry.retry(RETRY);
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(TIME_LIMITER);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(BULKHEAD);
+
+        Mono<String> attempt = Mono.defer(this::callUpstream)
+                .transformDeferred(TimeLimiterOperator.of(timeLimiter));
+        Mono<String> guarded;
+        if (circuitBreakerOuter) {
+            guarded = attempt
+                    .transformDeferred(RetryOperator.of(retry))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .onErrorResume(this::getCustFallBack);
+        } else {
+            guarded = attempt
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .onErrorResume(CallNotPermittedException.class, this::getCustFallBack)
+                    .transformDeferred(RetryOperator.of(retry))
+                    .onErrorResume(this::getRetryCustFallBack);
+        }
+        return guarded
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorResume(BulkheadFullException.class, this::getBulkheadFallBack);
+    }
+
+    private Mono<String> callUpstream() {
+        return webClient.get()
+                .uri(UPSTREAM_URL)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+
+    public Mono<String> getCustFallBack(Throwable ex) {
+        logger.info("From GetCustFallBack response {}", ex.toString());
+        return Mono.just(circuitBreakerOuter ? "Response from getCustFallBack" : "Response from CircuitBreaker Fallback");
+    }
+
+    public Mono<String> getRetryCustFallBack(Throwable throwable) {
+        logger.info("From getRetryCustFallBack response {}", throwable.toString());
+        return Mono.just("Response from Retry Fallback");
+    }
+
+    // the bulkhead never queues: a call beyond max-concurrent-calls is answered at once
+    public Mono<String> getBulkheadFallBack(Throwable ex) {
+        logger.info("From getBulkheadFallBack response {}", ex.toString());
+        return Mono.just("Response from Bulkhead Fallback");
+    }
+}
@@ -0,0 +1,17 @@
+package com.snkit.springbootresilience;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+
+@SpringBootApplication
+public class SpringbootresilienceApplication {
+
+    public static void main(String[] args) {
+
+        SpringApplication.run(SpringbootresilienceApplication.class, args);
+
+
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.snkit.springbootresilience.http;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * The upstream {@code WebClient}: a bounded, keep-alive Reactor Netty pool whose event loop threads serve every
+ * in-flight call, so a slow upstream costs connections and memory but no thread per request. An
+ * {@link ExchangeFunction} bean replaces the network client, e.g. the in-process stub of the benchmarks.
+ */
+@Configuration
+@EnableConfigurationProperties(WebClientPoolProperties.class)
+public class WebClientConfiguration {
+
+    @Bean
+    public WebClient upstreamWebClient(WebClient.Builder builder, WebClientPoolProperties properties,
+                                       ObjectProvider<ExchangeFunction> exchangeFunction) {
+        ExchangeFunction stub = exchangeFunction.getIfAvailable();
+        if (stub != null) {
+            return builder.exchangeFunction(stub).build();
+        }
+        ConnectionProvider pool = ConnectionProvider.builder("upstream")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getMaxPendingAcquires())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .tcpConfiguration(tcp -> tcp.option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                        (int) properties.getConnectTimeout().toMillis()));
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.snkit.springbootresilience.http;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the Reactor Netty connection pool behind the {@code WebClient} used for the upstream calls.
+ * There is no read timeout here: the time limiter bounds every attempt.
+ */
+@ConfigurationProperties(prefix = "resilience-demo.http-client")
+public class WebClientPoolProperties {
+
+    /** Maximum number of connections to the upstream. */
+    private int maxConnections = 200;
+
+    /** Requests allowed to wait for a free connection; beyond that they fail at once. */
+    private int maxPendingAcquires = 1000;
+
+    /** Time a request may wait for a free connection from the pool before failing. */
+    private Duration pendingAcquireTimeout = Duration.ofMillis(500);
+
+    /** Time allowed to establish the TCP connection. */
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    /** Idle time after which a pooled connection is closed. */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxPendingAcquires() {
+        return maxPendingAcquires;
+    }
+
+    public void setMaxPendingAcquires(int maxPendingAcquires) {
+        this.maxPendingAcquires = maxPendingAcquires;
+    }
+
+    public Duration getPendingAcquireTimeout() {
+        return pendingAcquireTimeout;
+    }
+
+    public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+        this.pendingAcquireTimeout = pendingAcquireTimeout;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+}
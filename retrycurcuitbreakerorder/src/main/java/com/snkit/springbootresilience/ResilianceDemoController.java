@@ -1,10 +1,28 @@
 package com.snkit.springbootresilience;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.snkit.springbootresilience.batch.BatchProperties;
+import com.snkit.springbootresilience.batch.BatchResultEmitter;
+import com.snkit.springbootresilience.events.ResilienceEventSink;
+import com.snkit.springbootresilience.eventstream.ResilienceEventStream;
 
 @RestController
 public class ResilianceDemoController {
@@ -13,14 +31,30 @@ public class ResilianceDemoController {
     
     @Autowired
     ResilianceDemoService resilianceDemoService;
+
+    @Autowired
+    ResilienceEventSink eventSink;
+
+    @Autowired
+    BatchProperties batchProperties;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    ResilienceEventStream eventStream;
     
     @GetMapping(value = "/getCust")
     public String getcustByNames() {
-        logger.info("🚀 Controller 收到请求: /getCust");
+        if (eventSink.isVerbose()) {
+            logger.info("🚀 Controller 收到请求: /getCust");
+        }
         
         try {
             String result = resilianceDemoService.getCust();
-            logger.info("✅ Controller 返回成功响应: {}", result);
+            if (eventSink.isVerbose()) {
+                logger.info("✅ Controller 返回成功响应: {}", result);
+            }
             return result;
         } catch (Exception e) {
             logger.error("❌ Controller 捕获异常: {}", e.getMessage());
@@ -28,6 +62,67 @@ public class ResilianceDemoController {
         }
     }
     
+    @GetMapping(value = "/getCustFor")
+    public String getcustByNamesFor(@RequestParam String tenant) {
+        if (eventSink.isVerbose()) {
+            logger.info("🚀 Controller 收到请求: /getCustFor, 租户: {}", tenant);
+        }
+        return resilianceDemoService.getCustFor(tenant);
+    }
+
+    // /getCusts?ids=1,2,3：以NDJSON流式返回，每个id一行，哪个先完成先输出
+    @GetMapping(value = "/getCusts")
+    public ResponseEntity<ResponseBodyEmitter> getcustsByIds(@RequestParam List<String> ids) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinct.size() > batchProperties.getMaxItems()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + batchProperties.getMaxItems() + " ids per request");
+        }
+        if (eventSink.isVerbose()) {
+            logger.info("🚀 Controller 收到批量请求: /getCusts, 条目数: {}", distinct.size());
+        }
+        BatchResultEmitter emitter = new BatchResultEmitter(objectMapper, batchProperties.getTimeout());
+        resilianceDemoService.getCusts(distinct, emitter, emitter::isClosed).whenComplete(emitter::finish);
+        return ResponseEntity.ok().contentType(BatchResultEmitter.NDJSON).body(emitter);
+    }
+
+    /**
+     * 以Server-Sent-Events实时推送所有断路器和重试实例的事件，替代高频轮询/status。
+     * types按事件类型过滤，可以是来源（circuitbreaker、retry）、类型（STATE_TRANSITION）或两者组合（circuitbreaker.ERROR）；
+     * 每个订阅者有独立的有界缓冲区，客户端跟不上时丢弃最旧的事件并推送dropped事件说明丢弃数量，不会拖慢getCust。
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestParam(required = false) List<String> types) {
+        return eventStream.subscribe(types);
+    }
+
+    @GetMapping(value = "/getCustFused")
+    public String getcustByNamesFused() {
+        if (eventSink.isVerbose()) {
+            logger.info("🚀 Controller 收到请求: /getCustFused");
+        }
+
+        try {
+            return resilianceDemoService.getCustFused();
+        } catch (Exception e) {
+            logger.error("❌ Controller 捕获异常: {}", e.getMessage());
+            return "Controller Error: " + e.getMessage();
+        }
+    }
+
+    @GetMapping(value = "/getCustAsync")
+    public CompletableFuture<String> getcustByNamesAsync() {
+        if (eventSink.isVerbose()) {
+            logger.info("🚀 Controller 收到异步请求: /getCustAsync");
+        }
+
+        return resilianceDemoService.getCustAsync()
+                .exceptionally(e -> {
+                    logger.error("❌ Controller 捕获异步异常: {}", e.getMessage());
+                    return "Controller Error: " + e.getMessage();
+                });
+    }
+
     @GetMapping(value = "/reset")
     public String resetCounters() {
         resilianceDemoService.resetCounters();
@@ -38,4 +133,11 @@ public class ResilianceDemoController {
     public String getStatus() {
         return resilianceDemoService.getCounterStatus();
     }
+
+    // 排查问题时临时打开逐次调用的详细日志：/eventMode?verbose=true
+    @GetMapping(value = "/eventMode")
+    public String setEventMode(@RequestParam boolean verbose) {
+        eventSink.setVerbose(verbose);
+        return verbose ? "已开启逐次调用详细日志" : "已切换为事件汇总日志";
+    }
 }
@@ -10,14 +10,43 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
 
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker.Metrics;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.retry.annotation.Retry;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import com.snkit.springbootresilience.batch.BatchFanOut;
+import com.snkit.springbootresilience.batch.BatchItemResult;
+import com.snkit.springbootresilience.batch.BatchProperties;
+import com.snkit.springbootresilience.cache.ResponseCache;
+import com.snkit.springbootresilience.events.ResilienceEventSink;
+import com.snkit.springbootresilience.fused.CountingMode;
+import com.snkit.springbootresilience.fused.ResilientCall;
+import com.snkit.springbootresilience.hedging.HedgedRequests;
+import com.snkit.springbootresilience.keyed.KeyedResilienceRegistry;
+import com.snkit.springbootresilience.latency.LatencyRecorder;
+import com.snkit.springbootresilience.limiter.ConcurrencyLimitExceededException;
+import com.snkit.springbootresilience.retry.RetryBudget;
+import com.snkit.springbootresilience.tracking.AttemptContext;
+import com.snkit.springbootresilience.tracking.CallOutcome;
+import com.snkit.springbootresilience.tracking.CallStatistics;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import javax.annotation.PostConstruct;
 
 @Service
@@ -29,12 +58,48 @@ public class ResilianceDemoService {
     @Autowired
     CircuitBreakerRegistry circuitBreakerRegistry;
 
+    @Autowired
+    RetryRegistry retryRegistry;
+
+    @Autowired
+    ResilienceEventSink eventSink;
+
+    // 对冲请求：首次尝试在对冲延迟内未返回时并行发出第二个请求，取先成功者并中止另一个；在upstreamExecutor上执行
+    @Autowired
+    HedgedRequests hedgedRequests;
+
+    // 最近一次成功响应的缓存：新鲜命中时不访问上游，断路器打开或重试耗尽时由fallback返回（标记为stale）
+    @Autowired
+    ResponseCache responseCache;
+
+    public static final String UPSTREAM_URL = "http://localhost:8070/getEmploye";
+
+    public static final String TENANT_HEADER = "X-Tenant";
+
     private static final Logger logger = LoggerFactory.getLogger(ResilianceDemoService.class);
 
-    // 添加调用计数器
-    private static final AtomicInteger callCounter = new AtomicInteger(0);
+    // 聚合计数（LongAdder分段计数，按结果分类）；单次调用的尝试次数保存在各自的AttemptContext中
+    @Autowired
+    CallStatistics callStatistics;
 
-    private static final AtomicInteger retryCounter = new AtomicInteger(0);
+    // 重试预算：成功响应存入额度，每次重试消耗额度；额度用完时直接进入getRetryCustFallBack，不再等待
+    @Autowired
+    RetryBudget retryBudget;
+
+    // 逐次尝试、整次调用（含重试等待）和fallback执行的延迟直方图，按切面顺序和结果打标签
+    @Autowired
+    LatencyRecorder latencyRecorder;
+
+    // 按租户划分的断路器和重试实例：首次使用时按getEmploye/getEmployetretry的配置创建，超出上限或长时间未使用时淘汰
+    @Autowired
+    KeyedResilienceRegistry keyedResilience;
+
+    // 批量查询：有界并发地逐个（或按批量接口分块）调用上游，每次调用都经过getEmploye断路器和getEmployetretry重试
+    @Autowired
+    BatchFanOut batchFanOut;
+
+    @Autowired
+    BatchProperties batchProperties;
 
     // 使用完整类名避免与注解冲突
     private io.github.resilience4j.circuitbreaker.CircuitBreaker circuitBreaker;
@@ -44,9 +109,16 @@ public class ResilianceDemoService {
         // 获取断路器实例并添加事件监听器
         circuitBreaker = circuitBreakerRegistry.circuitBreaker("getEmploye");
 
-        // 添加断路器事件监听器
+        // 所有事件先写入事件管道的环形缓冲区（热路径上不取metrics、不格式化日志），由后台线程周期性汇总输出
+        circuitBreaker.getEventPublisher().onEvent(eventSink::record);
+        retryRegistry.retry("getEmployetretry").getEventPublisher().onEvent(eventSink::record);
+
+        // 逐事件的详细日志只在verbose模式下输出；状态转换为低频事件，始终立即输出
         circuitBreaker.getEventPublisher()
                 .onSuccess(event -> {
+                    if (!eventSink.isVerbose()) {
+                        return;
+                    }
                     Metrics metrics = circuitBreaker.getMetrics();
                     logger.info("🟢 断路器成功记录 - 调用耗时: {}ms | 成功次数: {}, 失败次数: {}, 总次数: {}",
                             event.getElapsedDuration().toMillis(),
@@ -55,6 +127,9 @@ public class ResilianceDemoService {
                             metrics.getNumberOfBufferedCalls());
                 })
                 .onError(event -> {
+                    if (!eventSink.isVerbose()) {
+                        return;
+                    }
                     Metrics metrics = circuitBreaker.getMetrics();
                     logger.warn("🔴 断路器记录失败 - 异常: {}, 耗时: {}ms | 成功次数: {}, 失败次数: {}, 总次数: {}",
                             event.getThrowable().getClass().getSimpleName(),
@@ -73,6 +148,9 @@ public class ResilianceDemoService {
                             metrics.getNumberOfBufferedCalls());
                 })
                 .onSlowCallRateExceeded(event -> {
+                    if (!eventSink.isVerbose()) {
+                        return;
+                    }
                     Metrics metrics = circuitBreaker.getMetrics();
                     logger.warn("🐌 断路器慢调用率超标: {}% | 慢调用次数: {}, 总次数: {}",
                             event.getSlowCallRate(),
@@ -80,6 +158,9 @@ public class ResilianceDemoService {
                             metrics.getNumberOfBufferedCalls());
                 })
                 .onFailureRateExceeded(event -> {
+                    if (!eventSink.isVerbose()) {
+                        return;
+                    }
                     Metrics metrics = circuitBreaker.getMetrics();
                     logger.warn("💥 断路器失败率超标: {}% | 失败次数: {}, 总次数: {}",
                             event.getFailureRate(),
@@ -87,6 +168,9 @@ public class ResilianceDemoService {
                             metrics.getNumberOfBufferedCalls());
                 })
                 .onCallNotPermitted(event -> {
+                    if (!eventSink.isVerbose()) {
+                        return;
+                    }
                     Metrics metrics = circuitBreaker.getMetrics();
                     logger.warn("🚫 断路器拒绝调用 - 当前状态: {} | 成功次数: {}, 失败次数: {}, 总次数: {}",
                             circuitBreaker.getState(),
@@ -108,9 +192,47 @@ public class ResilianceDemoService {
     @CircuitBreaker(name = "getEmploye", fallbackMethod = "getCustFallBack")
     @Retry(name = "getEmployetretry", fallbackMethod = "getRetryCustFallBack")
     public String getCust() {
-        int currentCall = callCounter.incrementAndGet();
-        int currentRetry = retryCounter.incrementAndGet();
+        return attemptUpstream();
+    }
+
+    /**
+     * 与getCust使用相同的断路器和重试实例，但由ResilientCallAspect在一个切面内完成重试和熔断（少一层代理，实例和降级方法在启动时解析）。
+     * PER_ATTEMPT与本模块的切面顺序一致：每次尝试都单独计入断路器；断路器拒绝时不再重试，直接进入getCustFallBack，
+     * 重试耗尽或异常不可重试时进入getRetryCustFallBack。
+     */
+    @ResilientCall(circuitBreaker = "getEmploye", retry = "getEmployetretry", counting = CountingMode.PER_ATTEMPT,
+            fallbackMethod = "getRetryCustFallBack", rejectedFallbackMethod = "getCustFallBack")
+    public String getCustFused() {
+        return attemptUpstream();
+    }
 
+    private String attemptUpstream() {
+        int currentAttempt = AttemptContext.current().nextAttempt();
+        callStatistics.recordAttempt();
+
+        // 逐次调用的详细日志（含metrics快照）只在verbose模式下输出，默认由事件管道汇总
+        boolean verbose = eventSink.isVerbose();
+        if (verbose) {
+            traceAttemptStart(currentAttempt);
+        }
+
+        try {
+            String body = hedgedRequests.execute(this::callUpstream);
+
+            if (verbose) {
+                traceAttemptSuccess(currentAttempt, body);
+            }
+            return body;
+
+        } catch (Exception e) {
+            if (verbose) {
+                traceAttemptFailure(currentAttempt, e);
+            }
+            throw e; // 重新抛出异常，让重试和断路器处理
+        }
+    }
+
+    private void traceAttemptStart(int currentAttempt) {
         // 记录断路器当前状态和详细指标
         Metrics metrics = circuitBreaker.getMetrics();
         logger.info("🔍 断路器当前状态: {}", circuitBreaker.getState());
@@ -123,51 +245,137 @@ public class ResilianceDemoService {
                 metrics.getFailureRate(),
                 metrics.getSlowCallRate());
 
-        logger.info("=== 开始第 {} 次总调用，第 {} 次重试调用 ===", currentCall, currentRetry);
+        logger.info("=== 开始本次调用的第 {} 次尝试 ===", currentAttempt);
         logger.info("进入 getCust 方法 - ResilianceDemoService");
+        logger.info("准备调用外部服务: {}", UPSTREAM_URL);
+    }
 
-        try {
-            MultiValueMap<String, String> headers = new HttpHeaders();
-            headers.add("Content-Type", "application/json");
-            headers.add("Accept", "application/json");
+    private void traceAttemptSuccess(int currentAttempt, String body) {
+        logger.info("外部服务调用成功！响应: {}", body);
+        logger.info("=== 第 {} 次尝试成功退出 ===", currentAttempt);
 
-            HttpEntity requestEntity = new HttpEntity(headers);
+        // 成功后打印更新的指标
+        Metrics metricsAfterSuccess = circuitBreaker.getMetrics();
+        logger.info("✅ 成功后断路器统计: 成功次数={}, 失败次数={}, 总次数={}",
+                metricsAfterSuccess.getNumberOfSuccessfulCalls(),
+                metricsAfterSuccess.getNumberOfFailedCalls(),
+                metricsAfterSuccess.getNumberOfBufferedCalls());
+    }
 
-            logger.info("准备调用外部服务: http://localhost:8070/getEmploye");
-            ResponseEntity<String> response = restTemplate.exchange("http://localhost:8070/getEmploye",
-                    HttpMethod.GET,
-                    requestEntity,
-                    String.class);
+    private void traceAttemptFailure(int currentAttempt, Exception e) {
+        logger.error("第 {} 次尝试失败，异常: {}", currentAttempt, e.getMessage());
+        logger.error("🔍 失败后断路器状态: {}", circuitBreaker.getState());
+
+        // 失败后打印更新的指标
+        Metrics metricsAfterFailure = circuitBreaker.getMetrics();
+        logger.error("❌ 失败后断路器统计: 成功次数={}, 失败次数={}, 总次数={}, 失败率={}%",
+                metricsAfterFailure.getNumberOfSuccessfulCalls(),
+                metricsAfterFailure.getNumberOfFailedCalls(),
+                metricsAfterFailure.getNumberOfBufferedCalls(),
+                metricsAfterFailure.getFailureRate());
+    }
 
-            logger.info("外部服务调用成功！响应: {}", response.getBody());
-            logger.info("=== 第 {} 次调用成功退出 ===", currentCall);
+    /**
+     * getCust的异步版本：外部调用在upstreamExecutor上执行，重试的等待由retry切面的调度线程池定时触发，
+     * 因此上游变慢或重试退避期间都不会占用servlet线程。
+     * 断路器与重试按照与getCust相同的切面顺序作用于返回的CompletableFuture，降级方法最终仍委托给getCustFallBack/getRetryCustFallBack。
+     */
+    @CircuitBreaker(name = "getEmploye", fallbackMethod = "getCustAsyncFallBack")
+    @Retry(name = "getEmployetretry", fallbackMethod = "getRetryCustAsyncFallBack")
+    public CompletableFuture<String> getCustAsync() {
+        int currentAttempt = AttemptContext.current().nextAttempt();
+        callStatistics.recordAttempt();
+        if (eventSink.isVerbose()) {
+            logger.info("进入 getCustAsync 方法 - 第 {} 次尝试，断路器当前状态: {}", currentAttempt, circuitBreaker.getState());
+        }
+        return hedgedRequests.executeAsync(this::callUpstream);
+    }
 
-            // 成功后打印更新的指标
-            Metrics metricsAfterSuccess = circuitBreaker.getMetrics();
-            logger.info("✅ 成功后断路器统计: 成功次数={}, 失败次数={}, 总次数={}",
-                    metricsAfterSuccess.getNumberOfSuccessfulCalls(),
-                    metricsAfterSuccess.getNumberOfFailedCalls(),
-                    metricsAfterSuccess.getNumberOfBufferedCalls());
+    /**
+     * 每个租户使用独立的断路器和重试实例（与注解相同的嵌套顺序：重试在外、断路器在内），某个租户的上游故障只会打开它自己的断路器，
+     * 不影响其他租户。断路器打开时的拒绝不会被重试，直接进入getCustForFallBack。
+     */
+    public String getCustFor(String tenant) {
+        try {
+            return keyedResilience.execute(tenant, () -> hedgedRequests.execute(() -> callUpstreamFor(tenant)));
+        } catch (RuntimeException e) {
+            return getCustForFallBack(tenant, e);
+        }
+    }
 
-            // 重置重试计数器（成功时）
-            retryCounter.set(0);
+    /**
+     * 批量查询多个客户：最多parallelism个上游调用同时进行；配置了upstream-batch-url时按chunk-size分块调用批量接口。
+     * 单个条目（或分块）失败只影响自身，由getCustsFallBack逐条降级，不会让整个批次失败；结果按完成顺序交给sink。
+     * cancelled为true（客户端已断开或响应已超时）之后不再启动新的上游调用。
+     */
+    public CompletableFuture<Void> getCusts(List<String> ids, Consumer<BatchItemResult> sink, BooleanSupplier cancelled) {
+        String batchUrl = batchProperties.getUpstreamBatchUrl();
+        if (batchUrl.isEmpty()) {
+            return batchFanOut.execute(ids, 1,
+                    unit -> Collections.singletonMap(unit.get(0), callUpstreamById(unit.get(0))),
+                    this::getCustsFallBack, sink, cancelled);
+        }
+        return batchFanOut.execute(ids, batchProperties.getChunkSize(),
+                unit -> callUpstreamBatch(batchUrl, unit),
+                this::getCustsFallBack, sink, cancelled);
+    }
 
-            return response.getBody();
+    private String callUpstream() {
+        ResponseEntity<String> response = exchange(URI.create(UPSTREAM_URL), null, String.class);
+        responseCache.put(UPSTREAM_URL, response.getBody());
+        retryBudget.recordSuccess();
+        return response.getBody();
+    }
 
-        } catch (Exception e) {
-            logger.error("第 {} 次调用失败，异常: {}", currentCall, e.getMessage());
-            logger.error("🔍 失败后断路器状态: {}", circuitBreaker.getState());
+    // 不写入响应缓存：getCust的stale降级不能把某个租户的响应返回给其他租户
+    private String callUpstreamFor(String tenant) {
+        ResponseEntity<String> response = exchange(URI.create(UPSTREAM_URL), tenant, String.class);
+        retryBudget.recordSuccess();
+        return response.getBody();
+    }
 
-            // 失败后打印更新的指标
-            Metrics metricsAfterFailure = circuitBreaker.getMetrics();
-            logger.error("❌ 失败后断路器统计: 成功次数={}, 失败次数={}, 总次数={}, 失败率={}%",
-                    metricsAfterFailure.getNumberOfSuccessfulCalls(),
-                    metricsAfterFailure.getNumberOfFailedCalls(),
-                    metricsAfterFailure.getNumberOfBufferedCalls(),
-                    metricsAfterFailure.getFailureRate());
+    private String callUpstreamById(String id) {
+        URI uri = itemUri(id);
+        ResponseEntity<String> response = exchange(uri, null, String.class);
+        responseCache.put(uri.toString(), response.getBody());
+        retryBudget.recordSuccess();
+        return response.getBody();
+    }
 
-            throw e; // 重新抛出异常，让重试和断路器处理
+    // 批量接口返回以id为键的JSON对象；响应中缺少的id按单条失败处理
+    private Map<String, String> callUpstreamBatch(String batchUrl, List<String> ids) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(batchUrl).queryParam("ids", String.join(",", ids)).encode().build().toUri();
+        JsonNode bodies = exchange(uri, null, JsonNode.class).getBody();
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String id : ids) {
+            JsonNode body = bodies == null ? null : bodies.get(id);
+            if (body != null && !body.isNull()) {
+                result.put(id, body.toString());
+                responseCache.put(itemUri(id).toString(), body.toString());
+            }
         }
+        retryBudget.recordSuccess();
+        return result;
+    }
+
+    private static URI itemUri(String id) {
+        return UriComponentsBuilder.fromHttpUrl(UPSTREAM_URL).queryParam("id", id).encode().build().toUri();
+    }
+
+    private <T> ResponseEntity<T> exchange(URI uri, String tenant, Class<T> responseType) {
+        MultiValueMap<String, String> headers = new HttpHeaders();
+        headers.add("Content-Type", "application/json");
+        headers.add("Accept", "application/json");
+        if (tenant != null) {
+            headers.add(TENANT_HEADER, tenant);
+        }
+
+        HttpEntity requestEntity = new HttpEntity(headers);
+
+        return restTemplate.exchange(uri,
+                HttpMethod.GET,
+                requestEntity,
+                responseType);
     }
 
     // 断路器的fallback方法 - 处理CallNotPermittedException
@@ -190,18 +398,54 @@ public class ResilianceDemoService {
      * @return
      */
     public String getCustFallBack(Throwable ex) {
+        long start = System.nanoTime();
+        String response = null;
+        try {
+            response = serveCustFallBack(ex);
+            return response;
+        } finally {
+            latencyRecorder.recordFallback("getCustFallBack", System.nanoTime() - start, response != null);
+        }
+    }
+
+    private String serveCustFallBack(Throwable ex) {
         // 检查异常类型
+        boolean verbose = eventSink.isVerbose();
+        if (ex instanceof ConcurrencyLimitExceededException) {
+            // 由ConcurrencyLimitAspect在断路器和重试之外直接调用，不计入断路器统计
+            AttemptContext.current().markShed();
+            if (verbose) {
+                logger.warn("🚦 并发限制已满，请求被直接降级: {}", ex.getMessage());
+            }
+            return responseCache.getStale(UPSTREAM_URL)
+                    .orElse("Response from Concurrency Limit Fallback - 并发请求过多，请求已被拒绝");
+        }
         if (ex instanceof io.github.resilience4j.circuitbreaker.CallNotPermittedException) {
-            logger.error("🚨 这是 CallNotPermittedException - 熔断器已开启");
+            if (verbose) {
+                logger.error("🚨 这是 CallNotPermittedException - 熔断器已开启");
+            }
         } else {
             //注意:当fallback入参不是CallNotPermittedException时，需要做区分，若不是该异常，则需要向外继续抛出，才会走到retry
-            logger.error("🚨 这是其他异常 - 可能是业务异常触发的fallback");
+            if (verbose) {
+                logger.error("🚨 这是其他异常 - 可能是业务异常触发的fallback");
+            }
             throw new RuntimeException(ex);
         }
-        int currentCall = callCounter.get();
+        AttemptContext context = AttemptContext.current();
+        context.markBreakerRejected();
+        if (verbose) {
+            traceBreakerFallback(context, ex);
+        }
+
+        // 断路器打开期间优先返回max-stale内的缓存数据，没有可用缓存时才返回固定提示
+        return responseCache.getStale(UPSTREAM_URL)
+                .orElse("Response from CircuitBreaker Fallback - 断路器已打开，服务暂时不可用");
+    }
+
+    private void traceBreakerFallback(AttemptContext context, Throwable ex) {
         Metrics metrics = circuitBreaker.getMetrics();
 
-        logger.warn("*** 🚫 断路器已打开！第 {} 次调用被断路器拦截 ***", currentCall);
+        logger.warn("*** 🚫 断路器已打开！本次调用的第 {} 次尝试被断路器拦截 ***", context.getAttempts() + 1);
         logger.warn("断路器详细状态: 状态={}", circuitBreaker.getState());
         logger.warn("📊 断路器完整统计: 成功次数={}, 失败次数={}, 总次数={}, 慢调用次数={}",
                 metrics.getNumberOfSuccessfulCalls(),
@@ -212,17 +456,37 @@ public class ResilianceDemoService {
                 metrics.getFailureRate(),
                 metrics.getSlowCallRate());
         logger.info("断路器 Fallback 响应: {}", ex.getMessage());
-
-        return "Response from CircuitBreaker Fallback - 断路器已打开，服务暂时不可用";
     }
 
     // 重试的fallback方法 - 处理其他异常
     public String getRetryCustFallBack(java.lang.Throwable throwable) {
-        int currentCall = callCounter.get();
-        int currentRetry = retryCounter.get();
+        long start = System.nanoTime();
+        String response = null;
+        try {
+            response = serveRetryCustFallBack(throwable);
+            return response;
+        } finally {
+            latencyRecorder.recordFallback("getRetryCustFallBack", System.nanoTime() - start, response != null);
+        }
+    }
+
+    private String serveRetryCustFallBack(Throwable throwable) {
+        AttemptContext context = AttemptContext.current();
+        context.markRetryExhausted();
+        int currentRetry = context.getAttempts();
+        if (eventSink.isVerbose()) {
+            traceRetryFallback(currentRetry, throwable);
+        }
+        //不能抛出异常，否则在未打开熔断前，会将该异常抛到前面（若有全局异常处理器或有try-catch则可以）
+        //当前若想业务继续往下走，要么try-catch，要么不要抛异常
+        return responseCache.getStale(UPSTREAM_URL)
+                .orElse("Response from Retry Fallback - 重试 " + currentRetry + " 次后失败");
+    }
+
+    private void traceRetryFallback(int currentRetry, Throwable throwable) {
         Metrics metrics = circuitBreaker.getMetrics();
 
-        logger.error("*** 重试 {} 次后仍然失败！总调用次数: {} ***", currentRetry, currentCall);
+        logger.error("*** 重试 {} 次后仍然失败！***", currentRetry);
         logger.error("重试 Fallback 原因: {}", throwable.getMessage());
         logger.error("🔍 重试失败后断路器状态: {}", circuitBreaker.getState());
         logger.error("📊 重试失败后断路器统计: 成功次数={}, 失败次数={}, 总次数={}",
@@ -232,18 +496,60 @@ public class ResilianceDemoService {
         logger.error("📈 重试失败后比率: 失败率={}%, 慢调用率={}%",
                 metrics.getFailureRate(),
                 metrics.getSlowCallRate());
+    }
 
-        // 重置重试计数器
-        retryCounter.set(0);
-        //不能抛出异常，否则在未打开熔断前，会将该异常抛到前面（若有全局异常处理器或有try-catch则可以）
-        //当前若想业务继续往下走，要么try-catch，要么不要抛异常
-        return "Response from Retry Fallback - 重试 " + currentRetry + " 次后失败";
+    // 按租户调用的降级方法：断路器拒绝、重试耗尽或不可重试的异常都会进入这里
+    public String getCustForFallBack(String tenant, Throwable ex) {
+        if (ex instanceof io.github.resilience4j.circuitbreaker.CallNotPermittedException) {
+            if (eventSink.isVerbose()) {
+                logger.warn("🚫 租户 {} 的断路器已打开，请求被直接降级", tenant);
+            }
+            return "Response from CircuitBreaker Fallback - 租户 " + tenant + " 的断路器已打开，服务暂时不可用";
+        }
+        if (eventSink.isVerbose()) {
+            logger.error("租户 {} 的调用失败: {}", tenant, ex.getMessage());
+        }
+        return "Response from Retry Fallback - 租户 " + tenant + " 的调用重试后失败";
+    }
+
+    // 批量查询的逐条降级：优先返回该id在max-stale内的缓存数据
+    public String getCustsFallBack(String id, Throwable ex) {
+        if (eventSink.isVerbose()) {
+            logger.warn("批量查询中 id={} 的调用失败，使用降级结果: {}", id, ex.getMessage());
+        }
+        String reason = ex instanceof io.github.resilience4j.circuitbreaker.CallNotPermittedException
+                ? "断路器已打开" : "重试后失败";
+        return responseCache.getStale(itemUri(id).toString())
+                .orElse("Response from Batch Fallback - id " + id + " " + reason);
+    }
+
+    // 异步断路器fallback - 委托给getCustFallBack，其抛出的异常转为失败的future，继续交给外层的retry
+    public CompletableFuture<String> getCustAsyncFallBack(Throwable ex) {
+        return fallBackAsync(() -> getCustFallBack(unwrap(ex)));
+    }
+
+    // 异步重试fallback - 委托给getRetryCustFallBack
+    public CompletableFuture<String> getRetryCustAsyncFallBack(Throwable throwable) {
+        return fallBackAsync(() -> getRetryCustFallBack(unwrap(throwable)));
+    }
+
+    private static CompletableFuture<String> fallBackAsync(Supplier<String> fallBack) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        try {
+            result.complete(fallBack.get());
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
     }
 
     // 添加一个重置计数器的方法（用于测试）
     public void resetCounters() {
-        callCounter.set(0);
-        retryCounter.set(0);
+        callStatistics.reset();
         logger.info("计数器已重置");
     }
 
@@ -251,9 +557,16 @@ public class ResilianceDemoService {
     public String getCounterStatus() {
         Metrics metrics = circuitBreaker.getMetrics();
         return String.format(
-                "调用统计: 本地总调用=%d, 本地重试=%d | " +
+                "调用统计: 本地总调用=%d, 上游尝试=%d, 一次成功=%d, 重试后成功=%d, 重试耗尽=%d, 熔断拒绝=%d, 并发拒绝=%d, 未处理异常=%d, 剩余重试预算=%.1f | " +
                         "断路器: 状态=%s, 成功次数=%d, 失败次数=%d, 总次数=%d, 失败率=%.2f%%",
-                callCounter.get(), retryCounter.get(),
+                callStatistics.getCalls(), callStatistics.getAttempts(),
+                callStatistics.getCount(CallOutcome.SUCCESS),
+                callStatistics.getCount(CallOutcome.RETRIED_SUCCESS),
+                callStatistics.getCount(CallOutcome.RETRY_EXHAUSTED),
+                callStatistics.getCount(CallOutcome.BREAKER_REJECTED),
+                callStatistics.getCount(CallOutcome.SHED),
+                callStatistics.getCount(CallOutcome.FAILED),
+                Math.max(0, retryBudget.remaining()),
                 circuitBreaker.getState(),
                 metrics.getNumberOfSuccessfulCalls(),
                 metrics.getNumberOfFailedCalls(),
@@ -0,0 +1,229 @@
+package com.snkit.springbootresilience.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.configure.CircuitBreakerConfigurationProperties;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.retry.configure.RetryConfigurationProperties;
+
+/**
+ * Fans a list of ids out to the upstream with at most {@code parallelism} calls in flight, on the upstream
+ * executor. A unit of work is one id, or one chunk of ids when a batch upstream API is used; every unit goes
+ * through the configured circuit breaker and retry, nested like the annotations of this module.
+ * <p>
+ * Results are handed to the sink as units complete, in completion order. A failed unit does not fail the
+ * batch: each of its ids gets the result of the fallback, and so does an id missing from a batch response.
+ * Units are started one by one as earlier ones finish, so a large batch never floods the executor queue,
+ * and none is started once the caller has cancelled the batch, e.g. because the client went away.
+ */
+@Component
+@EnableConfigurationProperties(BatchProperties.class)
+public class BatchFanOut {
+
+    private final BatchProperties properties;
+
+    private final Executor upstreamExecutor;
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final RetryRegistry retryRegistry;
+
+    private final boolean circuitBreakerOuter;
+
+    public BatchFanOut(BatchProperties properties,
+                       @Qualifier("upstreamExecutor") Executor upstreamExecutor,
+                       CircuitBreakerRegistry circuitBreakerRegistry,
+                       RetryRegistry retryRegistry,
+                       CircuitBreakerConfigurationProperties circuitBreakerProperties,
+                       RetryConfigurationProperties retryProperties) {
+        this.properties = properties;
+        this.upstreamExecutor = upstreamExecutor;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.retryRegistry = retryRegistry;
+        // the aspect with the lower order is the outer one
+        this.circuitBreakerOuter = circuitBreakerProperties.getCircuitBreakerAspectOrder() < retryProperties.getRetryAspectOrder();
+    }
+
+    /**
+     * @param ids      distinct ids
+     * @param unitSize ids per upstream call
+     * @param call     one upstream call for a unit, answering the bodies by id
+     * @param fallback body served for an id whose unit failed, may return null
+     * @param sink      called once per id, possibly from several threads at once
+     * @param cancelled true once nobody waits for the results any more; units not started yet are then skipped
+     * @return completes once every id has been handed to the sink, or skipped after a cancellation
+     */
+    public CompletableFuture<Void> execute(List<String> ids, int unitSize,
+                                           Function<List<String>, Map<String, String>> call,
+                                           BiFunction<String, Throwable, String> fallback,
+                                           Consumer<BatchItemResult> sink, BooleanSupplier cancelled) {
+        List<List<String>> units = partition(ids, Math.max(1, unitSize));
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (units.isEmpty()) {
+            done.complete(null);
+            return done;
+        }
+        Run run = new Run(units, call, fallback, sink, cancelled, done);
+        for (int i = 0, workers = Math.min(properties.getParallelism(), units.size()); i < workers; i++) {
+            run.startNext();
+        }
+        return done;
+    }
+
+    private <T> T guarded(Supplier<T> call) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(properties.getCircuitBreaker());
+        Retry retry = retryRegistry.retry(properties.getRetry());
+        if (circuitBreakerOuter) {
+            return CircuitBreaker.decorateSupplier(circuitBreaker, Retry.decorateSupplier(retry, call)).get();
+        }
+        // a rejection is passed through the retry as a value, so it ends the unit instead of being retried
+        Supplier<Object> breaker = () -> {
+            try {
+                return CircuitBreaker.decorateSupplier(circuitBreaker, call).get();
+            } catch (CallNotPermittedException e) {
+                return e;
+            }
+        };
+        Object result = Retry.decorateSupplier(retry, breaker).get();
+        if (result instanceof CallNotPermittedException) {
+            throw (CallNotPermittedException) result;
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result;
+        return value;
+    }
+
+    private static List<List<String>> partition(List<String> ids, int size) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<List<String>> units = new ArrayList<>((ids.size() + size - 1) / size);
+        for (int from = 0; from < ids.size(); from += size) {
+            units.add(ids.subList(from, Math.min(ids.size(), from + size)));
+        }
+        return units;
+    }
+
+    private final class Run {
+
+        final List<List<String>> units;
+
+        final Function<List<String>, Map<String, String>> call;
+
+        final BiFunction<String, Throwable, String> fallback;
+
+        final Consumer<BatchItemResult> sink;
+
+        final BooleanSupplier cancelled;
+
+        final CompletableFuture<Void> done;
+
+        final AtomicInteger next = new AtomicInteger();
+
+        final AtomicInteger remaining;
+
+        Run(List<List<String>> units, Function<List<String>, Map<String, String>> call,
+            BiFunction<String, Throwable, String> fallback, Consumer<BatchItemResult> sink, BooleanSupplier cancelled,
+            CompletableFuture<Void> done) {
+            this.units = units;
+            this.call = call;
+            this.fallback = fallback;
+            this.sink = sink;
+            this.cancelled = cancelled;
+            this.done = done;
+            this.remaining = new AtomicInteger(units.size());
+        }
+
+        void startNext() {
+            int index = next.getAndIncrement();
+            if (index >= units.size()) {
+                return;
+            }
+            if (cancelled.getAsBoolean()) {
+                skipFrom(index);
+                return;
+            }
+            List<String> unit = units.get(index);
+            try {
+                upstreamExecutor.execute(() -> runAndContinue(unit));
+            } catch (RejectedExecutionException e) {
+                // the executor is saturated: fail the unit fast rather than queue behind other callers
+                unit.forEach(id -> fallBack(id, e));
+                finished();
+            }
+        }
+
+        // skips the unit at index and claims every one not handed out yet, so no other thread starts it
+        private void skipFrom(int index) {
+            int skipped = 1 + Math.max(0, units.size() - next.getAndSet(units.size()));
+            if (remaining.addAndGet(-skipped) == 0) {
+                done.complete(null);
+            }
+        }
+
+        private void runAndContinue(List<String> unit) {
+            try {
+                // the batch may have been cancelled while the unit waited in the executor queue
+                if (!cancelled.getAsBoolean()) {
+                    run(unit);
+                }
+            } catch (RuntimeException e) {
+                // a throwing sink must not stall the remaining units
+                done.completeExceptionally(e);
+            } finally {
+                finished();
+            }
+        }
+
+        private void finished() {
+            if (remaining.decrementAndGet() == 0) {
+                done.complete(null);
+            } else {
+                startNext();
+            }
+        }
+
+        private void run(List<String> unit) {
+            Map<String, String> bodies;
+            try {
+                bodies = guarded(() -> call.apply(unit));
+            } catch (RuntimeException e) {
+                unit.forEach(id -> fallBack(id, e));
+                return;
+            }
+            for (String id : unit) {
+                String body = bodies.get(id);
+                if (body != null) {
+                    sink.accept(BatchItemResult.success(id, body));
+                } else {
+                    fallBack(id, new NoSuchElementException("id " + id + " missing from the upstream response"));
+                }
+            }
+        }
+
+        private void fallBack(String id, Throwable cause) {
+            sink.accept(BatchItemResult.fallback(id, fallback.apply(id, cause), cause));
+        }
+    }
+}
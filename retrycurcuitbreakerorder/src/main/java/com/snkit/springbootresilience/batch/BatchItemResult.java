@@ -0,0 +1,49 @@
+package com.snkit.springbootresilience.batch;
+
+/**
+ * One line of the streamed {@code /getCusts} response.
+ */
+public class BatchItemResult {
+
+    private final String id;
+
+    private final String body;
+
+    private final boolean fallback;
+
+    private final String error;
+
+    private BatchItemResult(String id, String body, boolean fallback, String error) {
+        this.id = id;
+        this.body = body;
+        this.fallback = fallback;
+        this.error = error;
+    }
+
+    public static BatchItemResult success(String id, String body) {
+        return new BatchItemResult(id, body, false, null);
+    }
+
+    /**
+     * @param body what the fallback served, stale data or a placeholder, null if it had nothing
+     */
+    public static BatchItemResult fallback(String id, String body, Throwable cause) {
+        return new BatchItemResult(id, body, true, cause.getClass().getSimpleName() + ": " + cause.getMessage());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public boolean isFallback() {
+        return fallback;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
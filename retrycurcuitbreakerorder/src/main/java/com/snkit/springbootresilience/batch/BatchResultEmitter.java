@@ -0,0 +1,56 @@
+package com.snkit.springbootresilience.batch;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streams batch results as newline-delimited JSON, one {@link BatchItemResult} per line, flushed as each item
+ * completes, so the first items reach the client before the slowest one is done. Once the client is gone or
+ * the response has timed out, further items are dropped.
+ */
+public class BatchResultEmitter extends ResponseBodyEmitter implements Consumer<BatchItemResult> {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ObjectMapper objectMapper;
+
+    private volatile boolean closed;
+
+    public BatchResultEmitter(ObjectMapper objectMapper, Duration timeout) {
+        super(timeout.toMillis());
+        this.objectMapper = objectMapper;
+        onTimeout(() -> closed = true);
+        onError(error -> closed = true);
+    }
+
+    /** True once the client is gone or the response has timed out, i.e. nothing more can be sent. */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void accept(BatchItemResult item) {
+        if (closed) {
+            return;
+        }
+        try {
+            send(objectMapper.writeValueAsString(item) + "\n", NDJSON);
+        } catch (IOException | IllegalStateException e) {
+            closed = true;
+        }
+    }
+
+    public void finish(Void ignored, Throwable failure) {
+        if (failure == null) {
+            complete();
+        } else {
+            completeWithError(failure);
+        }
+    }
+}
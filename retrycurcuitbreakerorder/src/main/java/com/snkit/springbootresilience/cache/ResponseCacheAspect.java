@@ -0,0 +1,58 @@
+package com.snkit.springbootresilience.cache;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.snkit.springbootresilience.ResilianceDemoService;
+
+/**
+ * Outermost advice on getCust/getCustAsync: a fresh cache hit returns before the circuit breaker and retry
+ * aspects run, so it neither touches the network nor counts as a breaker outcome.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ResponseCacheAspect {
+
+    // set while a background refresh calls back into the proxy, so the refresh reaches the upstream
+    private static final ThreadLocal<Boolean> BYPASS = new ThreadLocal<>();
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheAspect(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Around("execution(* com.snkit.springbootresilience.ResilianceDemoService.getCust())"
+            + " || execution(* com.snkit.springbootresilience.ResilianceDemoService.getCustAsync())")
+    public Object serveFresh(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (BYPASS.get() != null) {
+            return joinPoint.proceed();
+        }
+        ResilianceDemoService service = (ResilianceDemoService) joinPoint.getThis();
+        Optional<String> cached = responseCache.getFresh(ResilianceDemoService.UPSTREAM_URL, () -> refresh(service));
+        if (!cached.isPresent()) {
+            return joinPoint.proceed();
+        }
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        return CompletableFuture.class.equals(returnType) ? CompletableFuture.completedFuture(cached.get()) : cached.get();
+    }
+
+    private static void refresh(ResilianceDemoService service) {
+        BYPASS.set(Boolean.TRUE);
+        try {
+            // goes through the breaker and retry like any other call; only a real upstream answer updates the cache
+            service.getCust();
+        } finally {
+            BYPASS.remove();
+        }
+    }
+}
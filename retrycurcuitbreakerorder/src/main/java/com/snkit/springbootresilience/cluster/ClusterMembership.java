@@ -0,0 +1,132 @@
+package com.snkit.springbootresilience.cluster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.snkit.springbootresilience.cluster.GossipMessage.BreakerSummary;
+
+/**
+ * The peers heard from recently and the last summary each of them sent. Kept apart from the coordinator
+ * because the half-open stagger of the breakers needs it before the circuit breaker registry is available.
+ */
+public class ClusterMembership {
+
+    private final String nodeId;
+
+    private final long peerTimeoutNanos;
+
+    private final ConcurrentMap<String, Peer> peers = new ConcurrentHashMap<>();
+
+    public ClusterMembership(String nodeId, long peerTimeoutNanos) {
+        this.nodeId = nodeId;
+        this.peerTimeoutNanos = peerTimeoutNanos;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Stores the peer's summary unless an earlier message overtook it.
+     *
+     * @return the breakers the peer closed after a half-open probe since its previous summary
+     */
+    synchronized List<String> update(GossipMessage message, long nowNanos) {
+        Peer previous = peers.get(message.nodeId);
+        if (previous != null && previous.incarnation == message.incarnation && previous.sequence >= message.sequence) {
+            return Collections.emptyList();
+        }
+        boolean sameIncarnation = previous != null && previous.incarnation == message.incarnation;
+        List<String> recovered = new ArrayList<>();
+        Map<String, PeerBreaker> breakers = new HashMap<>();
+        for (BreakerSummary summary : message.breakers) {
+            PeerBreaker before = sameIncarnation ? previous.breakers.get(summary.name) : null;
+            long openSince = nowNanos;
+            if (before != null && before.isSelfOpen()) {
+                openSince = before.openSinceNanos;
+            }
+            if (before != null && "HALF_OPEN".equals(before.summary.state) && "CLOSED".equals(summary.state)) {
+                recovered.add(summary.name);
+            }
+            breakers.put(summary.name, new PeerBreaker(summary, nowNanos, openSince));
+        }
+        peers.put(message.nodeId, new Peer(message.nodeId, message.incarnation, message.sequence, nowNanos, breakers));
+        return recovered;
+    }
+
+    /** Peers heard from within the peer timeout; the others are forgotten. */
+    List<Peer> livePeers(long nowNanos) {
+        List<Peer> live = new ArrayList<>(peers.size());
+        for (Iterator<Peer> it = peers.values().iterator(); it.hasNext(); ) {
+            Peer peer = it.next();
+            if (nowNanos - peer.lastSeenNanos > peerTimeoutNanos) {
+                it.remove();
+            } else {
+                live.add(peer);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Position of this instance in the half-open order of the breaker: the live node ids sorted and rotated by
+     * the breaker name, so every node computes the same order and different breakers are probed first by
+     * different nodes. 0 when alone.
+     */
+    public int halfOpenRank(String circuitBreaker) {
+        List<String> nodes = new ArrayList<>();
+        nodes.add(nodeId);
+        for (Peer peer : livePeers(System.nanoTime())) {
+            nodes.add(peer.nodeId);
+        }
+        Collections.sort(nodes);
+        return Math.floorMod(nodes.indexOf(nodeId) - circuitBreaker.hashCode(), nodes.size());
+    }
+
+    static final class Peer {
+
+        final String nodeId;
+
+        final long incarnation;
+
+        final long sequence;
+
+        final long lastSeenNanos;
+
+        final Map<String, PeerBreaker> breakers;
+
+        Peer(String nodeId, long incarnation, long sequence, long lastSeenNanos, Map<String, PeerBreaker> breakers) {
+            this.nodeId = nodeId;
+            this.incarnation = incarnation;
+            this.sequence = sequence;
+            this.lastSeenNanos = lastSeenNanos;
+            this.breakers = breakers;
+        }
+    }
+
+    static final class PeerBreaker {
+
+        final BreakerSummary summary;
+
+        final long receivedNanos;
+
+        /** When this instance first saw the peer open on its own failures, on the local clock. */
+        final long openSinceNanos;
+
+        PeerBreaker(BreakerSummary summary, long receivedNanos, long openSinceNanos) {
+            this.summary = summary;
+            this.receivedNanos = receivedNanos;
+            this.openSinceNanos = openSinceNanos;
+        }
+
+        boolean isSelfOpen() {
+            return "OPEN".equals(summary.state) && summary.selfOpened;
+        }
+    }
+}
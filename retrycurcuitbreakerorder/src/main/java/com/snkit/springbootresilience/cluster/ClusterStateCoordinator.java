@@ -0,0 +1,250 @@
+package com.snkit.springbootresilience.cluster;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.snkit.springbootresilience.cluster.ClusterMembership.Peer;
+import com.snkit.springbootresilience.cluster.ClusterMembership.PeerBreaker;
+import com.snkit.springbootresilience.cluster.GossipMessage.BreakerSummary;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Shares the state of the configured circuit breakers with the other instances, so the cluster agrees that
+ * an upstream is down after about {@code minimumNumberOfCalls} failures in total instead of per instance.
+ * <p>
+ * Every gossip round, and on every local state transition, the state and sliding window counts of each shared
+ * breaker are sent to the peers. A closed breaker is opened early when enough live peers opened on their own
+ * failures ({@code peer-open-ratio}), or when the failures summed over this instance and its closed peers
+ * reach the breaker's own failure rate threshold and minimum number of calls. Reports received before the
+ * local breaker last closed are ignored, so a recovered instance is not reopened by a peer that has not heard
+ * of the recovery yet. An open breaker goes half open as soon as a peer's half-open probe succeeds; until then
+ * each instance waits an extra {@code half-open-stagger} per position in the cluster's probe order.
+ */
+public class ClusterStateCoordinator implements MeterBinder {
+
+    private final ClusterStateProperties properties;
+
+    private final ClusterMembership membership;
+
+    private final ClusterTransport transport;
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final long incarnation = System.currentTimeMillis();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** Local time each shared breaker last entered the closed state. */
+    private final ConcurrentMap<String, Long> closedSince = new ConcurrentHashMap<>();
+
+    /** Shared breakers whose current open state was caused by the cluster, not by their own failures. */
+    private final Set<String> clusterOpened = ConcurrentHashMap.newKeySet();
+
+    /** The breaker openEarly is opening on the current thread; a self-open racing on another thread is not tagged. */
+    private final ThreadLocal<String> openingEarly = new ThreadLocal<>();
+
+    private final LongAdder peerOpens = new LongAdder();
+
+    private final LongAdder failureRateOpens = new LongAdder();
+
+    private final LongAdder followedRecoveries = new LongAdder();
+
+    private ScheduledExecutorService gossip;
+
+    public ClusterStateCoordinator(ClusterStateProperties properties, ClusterMembership membership,
+                                   ClusterTransport transport, CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.properties = properties;
+        this.membership = membership;
+        this.transport = transport;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        gossip = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-gossip");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (String name : properties.getCircuitBreakers()) {
+            listen(circuitBreakerRegistry.circuitBreaker(name));
+        }
+        circuitBreakerRegistry.getEventPublisher()
+                .onEntryAdded(event -> listenIfShared(event.getAddedEntry()))
+                .onEntryReplaced(event -> listenIfShared(event.getNewEntry()));
+        try {
+            transport.start(this::receive);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start the cluster transport", e);
+        }
+        long interval = properties.getGossipInterval().toMillis();
+        gossip.scheduleWithFixedDelay(this::round, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        gossip.shutdownNow();
+        transport.close();
+    }
+
+    private void listenIfShared(CircuitBreaker circuitBreaker) {
+        if (properties.getCircuitBreakers().contains(circuitBreaker.getName())) {
+            listen(circuitBreaker);
+        }
+    }
+
+    private void listen(CircuitBreaker circuitBreaker) {
+        String name = circuitBreaker.getName();
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.State to = event.getStateTransition().getToState();
+            if (to == CircuitBreaker.State.CLOSED) {
+                closedSince.put(name, System.nanoTime());
+            }
+            // the flag is set by openEarly on this same thread, the transition events are synchronous
+            if (to == CircuitBreaker.State.OPEN && name.equals(openingEarly.get())) {
+                clusterOpened.add(name);
+            } else {
+                clusterOpened.remove(name);
+            }
+            try {
+                gossip.execute(this::broadcast);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+            }
+        });
+    }
+
+    private void round() {
+        try {
+            broadcast();
+            evaluate();
+        } catch (RuntimeException e) {
+            // keep gossiping; the next round starts from fresh state anyway
+        }
+    }
+
+    private void broadcast() {
+        List<BreakerSummary> breakers = new ArrayList<>(properties.getCircuitBreakers().size());
+        for (String name : properties.getCircuitBreakers()) {
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+            CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+            breakers.add(new BreakerSummary(name, circuitBreaker.getState().name(), !clusterOpened.contains(name),
+                    metrics.getNumberOfFailedCalls(), metrics.getNumberOfBufferedCalls()));
+        }
+        transport.send(new GossipMessage(membership.getNodeId(), incarnation, sequence.incrementAndGet(), breakers).encode());
+    }
+
+    private void receive(String text) {
+        GossipMessage message = GossipMessage.decode(text);
+        if (message == null || message.nodeId.equals(membership.getNodeId())) {
+            return;
+        }
+        for (String name : membership.update(message, System.nanoTime())) {
+            followRecovery(name);
+        }
+        evaluate();
+    }
+
+    private synchronized void evaluate() {
+        long now = System.nanoTime();
+        List<Peer> live = membership.livePeers(now);
+        if (live.isEmpty()) {
+            return;
+        }
+        int quorum = Math.max(1, (int) Math.ceil(properties.getPeerOpenRatio() * live.size()));
+        for (String name : properties.getCircuitBreakers()) {
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+            if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+                continue;
+            }
+            Long since = closedSince.get(name);
+            int peersOpen = 0;
+            long failed = circuitBreaker.getMetrics().getNumberOfFailedCalls();
+            long buffered = circuitBreaker.getMetrics().getNumberOfBufferedCalls();
+            long localBuffered = buffered;
+            for (Peer peer : live) {
+                PeerBreaker breaker = peer.breakers.get(name);
+                if (breaker == null) {
+                    continue;
+                }
+                if (breaker.isSelfOpen() && (since == null || breaker.openSinceNanos - since > 0)) {
+                    peersOpen++;
+                } else if ("CLOSED".equals(breaker.summary.state) && (since == null || breaker.receivedNanos - since > 0)) {
+                    failed += breaker.summary.failedCalls;
+                    buffered += breaker.summary.bufferedCalls;
+                }
+            }
+            CircuitBreakerConfig config = circuitBreaker.getCircuitBreakerConfig();
+            if (peersOpen >= quorum) {
+                openEarly(circuitBreaker, peerOpens);
+            } else if (buffered > localBuffered && buffered >= config.getMinimumNumberOfCalls()
+                    && failed * 100f / buffered >= config.getFailureRateThreshold()) {
+                openEarly(circuitBreaker, failureRateOpens);
+            }
+        }
+    }
+
+    private void openEarly(CircuitBreaker circuitBreaker, LongAdder reason) {
+        openingEarly.set(circuitBreaker.getName());
+        try {
+            circuitBreaker.transitionToOpenState();
+            reason.increment();
+        } catch (IllegalStateException e) {
+            // a caller changed the state in the meantime
+        } finally {
+            openingEarly.remove();
+        }
+    }
+
+    private void followRecovery(String name) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+        if (circuitBreaker.getState() != CircuitBreaker.State.OPEN) {
+            return;
+        }
+        try {
+            circuitBreaker.transitionToHalfOpenState();
+            followedRecoveries.increment();
+        } catch (IllegalStateException e) {
+            // went half open on its own meanwhile
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cluster.peers.live", membership, m -> m.livePeers(System.nanoTime()).size())
+                .description("Peers heard from within the peer timeout")
+                .register(registry);
+        FunctionCounter.builder("cluster.breaker.early.opens", peerOpens, LongAdder::sum)
+                .description("Circuit breakers opened early because of the cluster")
+                .tag("reason", "peer-open")
+                .register(registry);
+        FunctionCounter.builder("cluster.breaker.early.opens", failureRateOpens, LongAdder::sum)
+                .description("Circuit breakers opened early because of the cluster")
+                .tag("reason", "cluster-failure-rate")
+                .register(registry);
+        FunctionCounter.builder("cluster.breaker.followed.recoveries", followedRecoveries, LongAdder::sum)
+                .description("Open circuit breakers moved to half open after a peer's probe succeeded")
+                .register(registry);
+    }
+}
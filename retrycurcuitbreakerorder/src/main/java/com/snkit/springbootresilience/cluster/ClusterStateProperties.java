@@ -0,0 +1,145 @@
+package com.snkit.springbootresilience.cluster;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "resilience-demo.cluster")
+public class ClusterStateProperties {
+
+    public enum Transport {
+        UDP, IN_MEMORY
+    }
+
+    private boolean enabled = false;
+
+    /** Identifies this instance to its peers; empty for pid@host. */
+    private String nodeId = "";
+
+    private Transport transport = Transport.UDP;
+
+    /** UDP address and port this instance receives gossip on. */
+    private String bindAddress = "127.0.0.1";
+
+    private int port = 47100;
+
+    /** UDP peers as host:port; every gossip round is sent to each of them. */
+    private List<String> peers = new ArrayList<>();
+
+    /** Instances sharing an in-memory transport, i.e. application contexts in one JVM. */
+    private String group = "default";
+
+    /** Circuit breaker instances whose state is shared. */
+    private List<String> circuitBreakers = new ArrayList<>(Collections.singletonList("getEmploye"));
+
+    /** How often the local state summary is sent; transitions are also sent as they happen. */
+    private Duration gossipInterval = Duration.ofSeconds(1);
+
+    /** A peer not heard from for this long is forgotten. */
+    private Duration peerTimeout = Duration.ofSeconds(5);
+
+    /** Share of the live peers that must have opened on their own failures before a closed breaker opens too. */
+    private double peerOpenRatio = 0.25;
+
+    /** Extra wait in the open state per position in the cluster's half-open order. */
+    private Duration halfOpenStagger = Duration.ofSeconds(2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    public String getBindAddress() {
+        return bindAddress;
+    }
+
+    public void setBindAddress(String bindAddress) {
+        this.bindAddress = bindAddress;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    public void setPeers(List<String> peers) {
+        this.peers = peers;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    public List<String> getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    public void setCircuitBreakers(List<String> circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    public Duration getGossipInterval() {
+        return gossipInterval;
+    }
+
+    public void setGossipInterval(Duration gossipInterval) {
+        this.gossipInterval = gossipInterval;
+    }
+
+    public Duration getPeerTimeout() {
+        return peerTimeout;
+    }
+
+    public void setPeerTimeout(Duration peerTimeout) {
+        this.peerTimeout = peerTimeout;
+    }
+
+    public double getPeerOpenRatio() {
+        return peerOpenRatio;
+    }
+
+    public void setPeerOpenRatio(double peerOpenRatio) {
+        this.peerOpenRatio = peerOpenRatio;
+    }
+
+    public Duration getHalfOpenStagger() {
+        return halfOpenStagger;
+    }
+
+    public void setHalfOpenStagger(Duration halfOpenStagger) {
+        this.halfOpenStagger = halfOpenStagger;
+    }
+}
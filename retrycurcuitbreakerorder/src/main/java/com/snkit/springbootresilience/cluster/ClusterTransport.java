@@ -0,0 +1,21 @@
+package com.snkit.springbootresilience.cluster;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries gossip messages between instances. Delivery is best effort: messages may be lost, duplicated or
+ * reordered, and every message is a complete summary, so the next round repairs whatever went missing.
+ */
+public interface ClusterTransport {
+
+    /**
+     * @param receiver called with every message from a peer, possibly on a transport thread
+     */
+    void start(Consumer<String> receiver) throws IOException;
+
+    /** Sends the message to every known peer. */
+    void send(String message);
+
+    void close();
+}
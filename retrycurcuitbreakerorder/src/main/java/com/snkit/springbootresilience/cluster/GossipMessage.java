@@ -0,0 +1,91 @@
+package com.snkit.springbootresilience.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One instance's summary of its shared breakers, as plain text: a header line
+ * {@code cbgossip1 <node> <incarnation> <sequence>} and a line per breaker
+ * {@code <name> <state> <self-opened> <failed calls> <buffered calls>}, tab separated.
+ */
+final class GossipMessage {
+
+    private static final String HEADER = "cbgossip1";
+
+    final String nodeId;
+
+    /** Start time of the sending instance, so a restarted node's sequence starts over. */
+    final long incarnation;
+
+    final long sequence;
+
+    final List<BreakerSummary> breakers;
+
+    GossipMessage(String nodeId, long incarnation, long sequence, List<BreakerSummary> breakers) {
+        this.nodeId = nodeId;
+        this.incarnation = incarnation;
+        this.sequence = sequence;
+        this.breakers = breakers;
+    }
+
+    String encode() {
+        StringBuilder text = new StringBuilder(64 + breakers.size() * 48);
+        text.append(HEADER).append('\t').append(nodeId).append('\t').append(incarnation).append('\t').append(sequence);
+        for (BreakerSummary breaker : breakers) {
+            text.append('\n').append(breaker.name)
+                    .append('\t').append(breaker.state)
+                    .append('\t').append(breaker.selfOpened ? 1 : 0)
+                    .append('\t').append(breaker.failedCalls)
+                    .append('\t').append(breaker.bufferedCalls);
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return null for anything that is not a well formed message
+     */
+    static GossipMessage decode(String text) {
+        String[] lines = text.split("\n");
+        String[] header = lines[0].split("\t");
+        if (header.length != 4 || !HEADER.equals(header[0])) {
+            return null;
+        }
+        try {
+            List<BreakerSummary> breakers = new ArrayList<>(lines.length - 1);
+            for (int i = 1; i < lines.length; i++) {
+                String[] fields = lines[i].split("\t");
+                if (fields.length != 5) {
+                    return null;
+                }
+                breakers.add(new BreakerSummary(fields[0], fields[1], "1".equals(fields[2]),
+                        Integer.parseInt(fields[3]), Integer.parseInt(fields[4])));
+            }
+            return new GossipMessage(header[1], Long.parseLong(header[2]), Long.parseLong(header[3]), breakers);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static final class BreakerSummary {
+
+        final String name;
+
+        /** {@code CircuitBreaker.State} name, kept as text so peers on other resilience4j versions still agree. */
+        final String state;
+
+        /** Opened by its own failures rather than early because of the cluster. */
+        final boolean selfOpened;
+
+        final int failedCalls;
+
+        final int bufferedCalls;
+
+        BreakerSummary(String name, String state, boolean selfOpened, int failedCalls, int bufferedCalls) {
+            this.name = name;
+            this.state = state;
+            this.selfOpened = selfOpened;
+            this.failedCalls = failedCalls;
+            this.bufferedCalls = bufferedCalls;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.snkit.springbootresilience.cluster;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * One datagram per message to each configured peer, e.g. several instances on loopback with their own ports.
+ * Datagrams from any other address are dropped. The channel is neither authenticated nor encrypted and a
+ * source address is easily spoofed, so whoever can reach the port can open the shared breakers: keep the
+ * port on loopback or a trusted network.
+ */
+public class UdpClusterTransport implements ClusterTransport {
+
+    private final InetSocketAddress bindAddress;
+
+    private final List<InetSocketAddress> peers = new ArrayList<>();
+
+    private volatile DatagramSocket socket;
+
+    public UdpClusterTransport(String bindAddress, int port, List<String> peers) {
+        this.bindAddress = new InetSocketAddress(bindAddress, port);
+        for (String peer : peers) {
+            int colon = peer.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Cluster peer must be host:port, was " + peer);
+            }
+            this.peers.add(new InetSocketAddress(peer.substring(0, colon).trim(), Integer.parseInt(peer.substring(colon + 1).trim())));
+        }
+    }
+
+    @Override
+    public void start(Consumer<String> receiver) throws IOException {
+        socket = new DatagramSocket(bindAddress);
+        Thread thread = new Thread(() -> receive(receiver), "cluster-receive");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void receive(Consumer<String> receiver) {
+        byte[] buffer = new byte[65507];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (!socket.isClosed()) {
+            try {
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+                if (!peers.contains(packet.getSocketAddress())) {
+                    continue;
+                }
+                receiver.accept(new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                // closed while waiting, or a transient error; the loop condition tells them apart
+            }
+        }
+    }
+
+    @Override
+    public void send(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(bytes, bytes.length, peer));
+            } catch (IOException e) {
+                // a peer that is down just misses this round
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (socket != null) {
+            socket.close();
+        }
+    }
+}
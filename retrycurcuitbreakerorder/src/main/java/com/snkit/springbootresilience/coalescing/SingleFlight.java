@@ -0,0 +1,109 @@
+package com.snkit.springbootresilience.coalescing;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller (the leader) runs the call, every caller
+ * arriving while it is in flight (a waiter) gets the leader's result or exception instead of running its own.
+ */
+@Component
+@ConditionalOnProperty(prefix = "resilience-demo.coalescing", name = "enabled", matchIfMissing = true)
+public class SingleFlight implements MeterBinder {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+
+    private final LongAdder waiters = new LongAdder();
+
+    @FunctionalInterface
+    public interface Call {
+        Object run() throws Throwable;
+    }
+
+    /**
+     * Blocking variant: waiters block until the leader's call completes.
+     */
+    public Object execute(String key, Call call) throws Throwable {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            waiters.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() != null ? e.getCause() : e;
+            }
+        }
+        leaders.increment();
+        try {
+            Object result = call.run();
+            complete(key, mine, result, null);
+            return result;
+        } catch (Throwable t) {
+            complete(key, mine, null, t);
+            throw t;
+        }
+    }
+
+    /**
+     * Async variant: waiters get a future of the leader's result without blocking.
+     */
+    public CompletableFuture<Object> executeAsync(String key, Call call) throws Throwable {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            waiters.increment();
+            return existing.thenApply(value -> value);
+        }
+        leaders.increment();
+        try {
+            @SuppressWarnings("unchecked")
+            CompletionStage<Object> result = (CompletionStage<Object>) call.run();
+            // an async leader stays in flight until its future completes
+            result.whenComplete((value, throwable) -> complete(key, mine, value, throwable));
+            return result.toCompletableFuture();
+        } catch (Throwable t) {
+            complete(key, mine, null, t);
+            throw t;
+        }
+    }
+
+    private void complete(String key, CompletableFuture<Object> mine, Object value, Throwable throwable) {
+        inFlight.remove(key, mine);
+        if (throwable == null) {
+            mine.complete(value);
+        } else {
+            mine.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("singleflight.calls", leaders, LongAdder::sum)
+                .description("Calls by role: leaders ran the upstream call chain, waiters shared a leader's result")
+                .tag("role", "leader")
+                .register(registry);
+        FunctionCounter.builder("singleflight.calls", waiters, LongAdder::sum)
+                .description("Calls by role: leaders ran the upstream call chain, waiters shared a leader's result")
+                .tag("role", "waiter")
+                .register(registry);
+        Gauge.builder("singleflight.inflight", inFlight, Map::size)
+                .description("Keys with a call currently in flight")
+                .register(registry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.snkit.springbootresilience.coalescing;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.snkit.springbootresilience.ResilianceDemoService;
+
+/**
+ * Runs inside the response cache and the concurrency limiter and outside the circuit breaker and retry aspects, so a
+ * burst of identical getCust/getCustAsync calls costs one attempt chain and one breaker outcome instead of one per
+ * caller, while the callers waiting for it still count against the limit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(prefix = "resilience-demo.coalescing", name = "enabled", matchIfMissing = true)
+public class SingleFlightAspect {
+
+    private final SingleFlight singleFlight;
+
+    public SingleFlightAspect(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    @Around("execution(* com.snkit.springbootresilience.ResilianceDemoService.getCust())"
+            + " || execution(* com.snkit.springbootresilience.ResilianceDemoService.getCustAsync())")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (CompletableFuture.class.equals(((MethodSignature) joinPoint.getSignature()).getReturnType())) {
+            return singleFlight.executeAsync(ResilianceDemoService.UPSTREAM_URL, joinPoint::proceed);
+        }
+        return singleFlight.execute(ResilianceDemoService.UPSTREAM_URL, joinPoint::proceed);
+    }
+}
@@ -0,0 +1,276 @@
+package com.snkit.springbootresilience.events;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnErrorEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnIgnoredErrorEvent;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnSuccessEvent;
+import io.github.resilience4j.retry.event.RetryEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 低开销的断路器/重试事件管道。
+ * 调用线程只把事件类型、耗时和异常类型写入预分配的环形缓冲区（一次CAS加几次字段写入，不取metrics、不格式化日志），
+ * 后台单线程周期性地排空缓冲区、在内存中聚合，并按summaryInterval输出一行汇总日志。
+ * 缓冲区写满时直接丢弃并计数，调用线程永远不会被日志拖慢。
+ * 状态转换不经过这里，由ResilianceDemoService中的onStateTransition立即输出。
+ */
+@Component
+@EnableConfigurationProperties(ResilienceEventSinkProperties.class)
+public class ResilienceEventSink implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilienceEventSink.class);
+
+    private static final ResilienceEventType[] TYPES = ResilienceEventType.values();
+
+    private final ResilienceEventSinkProperties properties;
+
+    private final Slot[] slots;
+
+    private final int mask;
+
+    // 生产者通过CAS领取序号
+    private final AtomicLong claimed = new AtomicLong();
+
+    // 消费者已处理到的序号，只有后台线程写
+    private volatile long consumed;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean verbose;
+
+    // 以下聚合状态只在后台线程访问
+    private final long[] counts = new long[TYPES.length];
+
+    private final Map<Class<?>, Long> errorTypes = new HashMap<>();
+
+    private long elapsedNanosTotal;
+
+    private long elapsedCount;
+
+    private long elapsedNanosMax;
+
+    private long lastSummaryNanos = System.nanoTime();
+
+    private long droppedReported;
+
+    private ScheduledExecutorService drainer;
+
+    public ResilienceEventSink(ResilienceEventSinkProperties properties) {
+        this.properties = properties;
+        int capacity = Integer.highestOneBit(Math.max(2, properties.getBufferSize() - 1)) << 1;
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.verbose = properties.getMode() == ResilienceEventSinkProperties.Mode.VERBOSE;
+    }
+
+    @PostConstruct
+    public void start() {
+        drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resilience-event-sink");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getDrainInterval().toMillis();
+        drainer.scheduleWithFixedDelay(this::drainAndSummarize, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        drainer.shutdown();
+        if (drainer.awaitTermination(1, TimeUnit.SECONDS)) {
+            drain();
+            summarize();
+        }
+    }
+
+    /**
+     * 是否输出逐次调用的详细日志；可在运行时切换。
+     */
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public void record(CircuitBreakerEvent event) {
+        switch (event.getEventType()) {
+            case SUCCESS:
+                record(ResilienceEventType.CIRCUIT_BREAKER_SUCCESS,
+                        ((CircuitBreakerOnSuccessEvent) event).getElapsedDuration().toNanos(), null);
+                break;
+            case ERROR:
+                CircuitBreakerOnErrorEvent error = (CircuitBreakerOnErrorEvent) event;
+                record(ResilienceEventType.CIRCUIT_BREAKER_ERROR,
+                        error.getElapsedDuration().toNanos(), error.getThrowable().getClass());
+                break;
+            case IGNORED_ERROR:
+                CircuitBreakerOnIgnoredErrorEvent ignored = (CircuitBreakerOnIgnoredErrorEvent) event;
+                record(ResilienceEventType.CIRCUIT_BREAKER_IGNORED_ERROR,
+                        ignored.getElapsedDuration().toNanos(), ignored.getThrowable().getClass());
+                break;
+            case NOT_PERMITTED:
+                record(ResilienceEventType.CIRCUIT_BREAKER_NOT_PERMITTED, -1, null);
+                break;
+            case FAILURE_RATE_EXCEEDED:
+                record(ResilienceEventType.CIRCUIT_BREAKER_FAILURE_RATE_EXCEEDED, -1, null);
+                break;
+            case SLOW_CALL_RATE_EXCEEDED:
+                record(ResilienceEventType.CIRCUIT_BREAKER_SLOW_CALL_RATE_EXCEEDED, -1, null);
+                break;
+            default:
+                // 状态转换、reset等低频事件不进缓冲区
+                break;
+        }
+    }
+
+    public void record(RetryEvent event) {
+        Class<?> errorType = event.getLastThrowable() != null ? event.getLastThrowable().getClass() : null;
+        switch (event.getEventType()) {
+            case RETRY:
+                record(ResilienceEventType.RETRY_RETRY, -1, errorType);
+                break;
+            case SUCCESS:
+                record(ResilienceEventType.RETRY_SUCCESS, -1, null);
+                break;
+            case ERROR:
+                record(ResilienceEventType.RETRY_ERROR, -1, errorType);
+                break;
+            case IGNORED_ERROR:
+                record(ResilienceEventType.RETRY_IGNORED_ERROR, -1, errorType);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void record(ResilienceEventType type, long elapsedNanos, Class<?> errorType) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.type = type.ordinal();
+        slot.elapsedNanos = elapsedNanos;
+        slot.errorType = errorType;
+        // volatile写作为发布点，消费者看到序号后即可安全读取上面的字段
+        slot.published = sequence;
+    }
+
+    private void drainAndSummarize() {
+        try {
+            drain();
+            if (System.nanoTime() - lastSummaryNanos >= properties.getSummaryInterval().toNanos()) {
+                summarize();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("事件汇总失败", e);
+        }
+    }
+
+    private void drain() {
+        long next = consumed;
+        while (true) {
+            Slot slot = slots[(int) (next & mask)];
+            if (slot.published != next) {
+                break;
+            }
+            counts[slot.type]++;
+            if (slot.elapsedNanos >= 0) {
+                elapsedNanosTotal += slot.elapsedNanos;
+                elapsedCount++;
+                elapsedNanosMax = Math.max(elapsedNanosMax, slot.elapsedNanos);
+            }
+            if (slot.errorType != null) {
+                errorTypes.merge(slot.errorType, 1L, Long::sum);
+                slot.errorType = null;
+            }
+            next++;
+            consumed = next;
+        }
+    }
+
+    private void summarize() {
+        long now = System.nanoTime();
+        long windowMillis = TimeUnit.NANOSECONDS.toMillis(now - lastSummaryNanos);
+        lastSummaryNanos = now;
+        long droppedTotal = dropped.sum();
+        long droppedInWindow = droppedTotal - droppedReported;
+        droppedReported = droppedTotal;
+
+        Map<ResilienceEventType, Long> byType = new EnumMap<>(ResilienceEventType.class);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                byType.put(TYPES[i], counts[i]);
+            }
+        }
+        if (byType.isEmpty() && droppedInWindow == 0) {
+            return;
+        }
+        StringBuilder events = new StringBuilder();
+        byType.forEach((type, count) -> events.append(type.getLabel()).append('=').append(count).append(' '));
+        StringBuilder errors = new StringBuilder();
+        errorTypes.forEach((type, count) -> errors.append(type.getSimpleName()).append('=').append(count).append(' '));
+
+        logger.info("📋 断路器/重试事件汇总({}ms): {}| 平均耗时: {}ms, 最大耗时: {}ms | 异常: {}| 丢弃事件: {}",
+                windowMillis,
+                events,
+                elapsedCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(elapsedNanosTotal / elapsedCount),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanosMax),
+                errors.length() == 0 ? "无 " : errors,
+                droppedInWindow);
+
+        Arrays.fill(counts, 0);
+        errorTypes.clear();
+        elapsedNanosTotal = 0;
+        elapsedCount = 0;
+        elapsedNanosMax = 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("resilience.events.dropped", dropped, LongAdder::sum)
+                .description("Circuit breaker and retry events dropped because the event ring buffer was full")
+                .register(registry);
+    }
+
+    private static final class Slot {
+
+        volatile long published = -1;
+
+        int type;
+
+        long elapsedNanos;
+
+        Class<?> errorType;
+    }
+}
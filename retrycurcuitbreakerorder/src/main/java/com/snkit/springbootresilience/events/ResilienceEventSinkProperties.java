@@ -0,0 +1,62 @@
+package com.snkit.springbootresilience.events;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 断路器/重试事件管道的配置。
+ */
+@ConfigurationProperties(prefix = "resilience-demo.events")
+public class ResilienceEventSinkProperties {
+
+    public enum Mode {
+        /** 热路径只写环形缓冲区，后台线程按周期输出汇总日志 */
+        SUMMARY,
+        /** 额外输出每次调用/每个事件的详细日志，仅用于排查问题 */
+        VERBOSE
+    }
+
+    private Mode mode = Mode.SUMMARY;
+
+    /** 环形缓冲区槽位数，向上取整为2的幂；写满时丢弃新事件并计数，不阻塞调用线程 */
+    private int bufferSize = 4096;
+
+    /** 后台线程排空缓冲区的间隔 */
+    private Duration drainInterval = Duration.ofMillis(100);
+
+    /** 汇总日志的输出间隔，区间内没有事件时不输出 */
+    private Duration summaryInterval = Duration.ofSeconds(10);
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public Duration getDrainInterval() {
+        return drainInterval;
+    }
+
+    public void setDrainInterval(Duration drainInterval) {
+        this.drainInterval = drainInterval;
+    }
+
+    public Duration getSummaryInterval() {
+        return summaryInterval;
+    }
+
+    public void setSummaryInterval(Duration summaryInterval) {
+        this.summaryInterval = summaryInterval;
+    }
+}
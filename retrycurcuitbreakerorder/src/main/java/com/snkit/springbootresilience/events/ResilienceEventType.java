@@ -0,0 +1,28 @@
+package com.snkit.springbootresilience.events;
+
+/**
+ * 环形缓冲区中记录的事件类型，汇总日志按此分类计数。
+ */
+public enum ResilienceEventType {
+
+    CIRCUIT_BREAKER_SUCCESS("断路器成功"),
+    CIRCUIT_BREAKER_ERROR("断路器失败"),
+    CIRCUIT_BREAKER_IGNORED_ERROR("断路器忽略异常"),
+    CIRCUIT_BREAKER_NOT_PERMITTED("断路器拒绝"),
+    CIRCUIT_BREAKER_FAILURE_RATE_EXCEEDED("失败率超标"),
+    CIRCUIT_BREAKER_SLOW_CALL_RATE_EXCEEDED("慢调用率超标"),
+    RETRY_RETRY("重试"),
+    RETRY_SUCCESS("重试后成功"),
+    RETRY_ERROR("重试耗尽"),
+    RETRY_IGNORED_ERROR("重试忽略异常");
+
+    private final String label;
+
+    ResilienceEventType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,63 @@
+package com.snkit.springbootresilience.eventstream;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "resilience-demo.event-stream")
+public class EventStreamProperties {
+
+    /** Events buffered per subscriber; when the client falls behind the oldest are dropped. */
+    private int bufferSize = 1024;
+
+    private int maxSubscribers = 16;
+
+    /** How often buffered events are pushed to the subscribers. */
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    /** Comment line sent to an idle subscriber, so dead connections are noticed. */
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    /** Lifetime of one subscription; EventSource clients reconnect on their own. */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getHeartbeat() {
+        return heartbeat;
+    }
+
+    public void setHeartbeat(Duration heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
@@ -0,0 +1,88 @@
+package com.snkit.springbootresilience.eventstream;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One stream client: a fixed-size ring of the events that passed its filter, overwritten oldest first when the
+ * client falls behind, and the count of events lost that way since the last push.
+ * <p>
+ * The publishing side only takes the ring's monitor long enough to store a reference, the pushing side
+ * long enough to copy the ring out; the network write happens outside it.
+ */
+final class EventSubscriber {
+
+    final SseEmitter emitter;
+
+    private final Set<String> filter;
+
+    // qualified tokens need a concatenation per event, so only build it when the filter has any
+    private final boolean qualifiedFilter;
+
+    private final StreamedEvent[] ring;
+
+    private int head;
+
+    private int size;
+
+    private long dropped;
+
+    final AtomicBoolean sending = new AtomicBoolean();
+
+    volatile boolean closed;
+
+    volatile long lastSentNanos = System.nanoTime();
+
+    EventSubscriber(SseEmitter emitter, Set<String> filter, int capacity) {
+        this.emitter = emitter;
+        this.filter = filter;
+        this.qualifiedFilter = filter.stream().anyMatch(token -> token.indexOf('.') > 0);
+        this.ring = new StreamedEvent[Math.max(1, capacity)];
+    }
+
+    /**
+     * An empty filter accepts everything; otherwise a token matches the source ({@code circuitbreaker},
+     * {@code retry}), the type ({@code STATE_TRANSITION}) or both ({@code circuitbreaker.STATE_TRANSITION}).
+     */
+    boolean accepts(StreamedEvent event) {
+        return filter.isEmpty()
+                || filter.contains(event.type)
+                || filter.contains(event.source)
+                || qualifiedFilter && filter.contains(event.source + "." + event.type);
+    }
+
+    synchronized void offer(StreamedEvent event) {
+        if (size == ring.length) {
+            ring[head] = event;
+            head = (head + 1) % ring.length;
+            dropped++;
+        } else {
+            ring[(head + size) % ring.length] = event;
+            size++;
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0 && dropped == 0;
+    }
+
+    /**
+     * @param out receives the buffered events, oldest first
+     * @return events dropped since the previous drain
+     */
+    synchronized long drainTo(List<StreamedEvent> out) {
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % ring.length;
+            out.add(ring[index]);
+            ring[index] = null;
+        }
+        head = 0;
+        size = 0;
+        long lost = dropped;
+        dropped = 0;
+        return lost;
+    }
+}
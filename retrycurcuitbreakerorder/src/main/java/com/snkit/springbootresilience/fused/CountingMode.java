@@ -0,0 +1,19 @@
+package com.snkit.springbootresilience.fused;
+
+/**
+ * What the circuit breaker of a {@link ResilientCall} counts.
+ */
+public enum CountingMode {
+
+    /**
+     * Every attempt asks the breaker for permission and is recorded on its own, like
+     * {@code Retry(CircuitBreaker(call))}. A rejected attempt ends the call, it is not retried into an open breaker.
+     */
+    PER_ATTEMPT,
+
+    /**
+     * The breaker is asked once and records only the final outcome after the retries, like
+     * {@code CircuitBreaker(Retry(call))}.
+     */
+    PER_CALL
+}
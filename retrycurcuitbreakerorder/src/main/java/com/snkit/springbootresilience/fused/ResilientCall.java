@@ -0,0 +1,42 @@
+package com.snkit.springbootresilience.fused;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retry and circuit breaker applied by one advice, {@link ResilientCallAspect}, instead of the
+ * {@code @CircuitBreaker} + {@code @Retry} pair and their two proxy hops. The instances come from the same
+ * registries, so configuration, backoff, retry budget, events and metrics are shared with the annotated stack.
+ * Only synchronous methods are supported.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ResilientCall {
+
+    /**
+     * Name of the circuit breaker instance.
+     */
+    String circuitBreaker();
+
+    /**
+     * Name of the retry instance.
+     */
+    String retry();
+
+    CountingMode counting() default CountingMode.PER_CALL;
+
+    /**
+     * Method on the same bean taking one {@link Throwable} argument, called when the retries are exhausted or
+     * the exception is not retried. Without it the exception is rethrown.
+     */
+    String fallbackMethod() default "";
+
+    /**
+     * Method called when the breaker rejects the call; defaults to {@link #fallbackMethod()}.
+     */
+    String rejectedFallbackMethod() default "";
+}
@@ -0,0 +1,274 @@
+package com.snkit.springbootresilience.fused;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.autoproxy.AutoProxyUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+
+/**
+ * Runs {@link ResilientCall} methods: retry and circuit breaker in one advice, with the breaker instance, the
+ * retry instance and the fallback methods resolved once when the singletons are ready (and again if a registry
+ * entry is replaced), so an invocation does one map lookup instead of a registry lookup and a reflective
+ * fallback search per aspect.
+ *
+ * <p>Ordered where the circuit breaker and retry aspects sit: inside the call latency, limiter and caching
+ * aspects, outside the per-attempt latency aspect, which therefore still runs once per attempt.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ResilientCallAspect implements SmartInitializingSingleton, BeanFactoryAware {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final RetryRegistry retryRegistry;
+
+    private final List<Target> targets = new ArrayList<>();
+
+    private ConfigurableListableBeanFactory beanFactory;
+
+    private volatile Map<Method, Plan> plans = Collections.emptyMap();
+
+    public ResilientCallAspect(CircuitBreakerRegistry circuitBreakerRegistry, RetryRegistry retryRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.retryRegistry = retryRegistry;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> type;
+            try {
+                type = AutoProxyUtils.determineTargetClass(beanFactory, beanName);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            if (type == null) {
+                continue;
+            }
+            Map<Method, ResilientCall> annotated = MethodIntrospector.selectMethods(type,
+                    (MethodIntrospector.MetadataLookup<ResilientCall>) method ->
+                            AnnotationUtils.findAnnotation(method, ResilientCall.class));
+            annotated.forEach((method, annotation) -> targets.add(new Target(type, method, annotation)));
+        }
+        if (targets.isEmpty()) {
+            return;
+        }
+        resolvePlans();
+        circuitBreakerRegistry.getEventPublisher().onEntryReplaced(event -> resolvePlans());
+        retryRegistry.getEventPublisher().onEntryReplaced(event -> resolvePlans());
+    }
+
+    private synchronized void resolvePlans() {
+        Map<Method, Plan> resolved = new HashMap<>();
+        for (Target target : targets) {
+            resolved.put(target.method, resolve(target));
+        }
+        plans = resolved;
+    }
+
+    private Plan resolve(Target target) {
+        Method method = target.method;
+        ResilientCall annotation = target.annotation;
+        Class<?> returnType = method.getReturnType();
+        if (CompletionStage.class.isAssignableFrom(returnType) || Future.class.isAssignableFrom(returnType)) {
+            throw new IllegalStateException("@ResilientCall supports synchronous methods only: " + method);
+        }
+        Fallback fallback = Fallback.find(target.type, method, annotation.fallbackMethod());
+        Fallback rejectedFallback = annotation.rejectedFallbackMethod().isEmpty()
+                ? fallback : Fallback.find(target.type, method, annotation.rejectedFallbackMethod());
+        return new Plan(circuitBreakerRegistry.circuitBreaker(annotation.circuitBreaker()),
+                retryRegistry.retry(annotation.retry()), annotation.counting(), fallback, rejectedFallback);
+    }
+
+    @Around("@annotation(com.snkit.springbootresilience.fused.ResilientCall)")
+    public Object invoke(ProceedingJoinPoint joinPoint) throws Throwable {
+        Plan plan = plans.get(((MethodSignature) joinPoint.getSignature()).getMethod());
+        if (plan == null) {
+            throw new IllegalStateException("@ResilientCall method called before startup completed: " + joinPoint.getSignature());
+        }
+        return plan.counting == CountingMode.PER_ATTEMPT ? perAttempt(plan, joinPoint) : perCall(plan, joinPoint);
+    }
+
+    private static Object perCall(Plan plan, ProceedingJoinPoint joinPoint) throws Throwable {
+        CircuitBreaker circuitBreaker = plan.circuitBreaker;
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            return plan.rejectedFallback.apply(joinPoint.getTarget(), e);
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = retry(plan.retry, joinPoint);
+        } catch (Throwable t) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, t);
+            return plan.fallback.apply(joinPoint.getTarget(), t);
+        }
+        circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    // same loop as Retry.decorateCheckedSupplier: onError waits the backoff, or rethrows once the call is not retried
+    private static Object retry(Retry retry, ProceedingJoinPoint joinPoint) throws Throwable {
+        Retry.Context<Object> context = retry.context();
+        while (true) {
+            try {
+                Object result = joinPoint.proceed();
+                if (!context.onResult(result)) {
+                    context.onComplete();
+                    return result;
+                }
+            } catch (Exception e) {
+                context.onError(e);
+            }
+        }
+    }
+
+    private static Object perAttempt(Plan plan, ProceedingJoinPoint joinPoint) throws Throwable {
+        CircuitBreaker circuitBreaker = plan.circuitBreaker;
+        Retry.Context<Object> context = plan.retry.context();
+        while (true) {
+            try {
+                circuitBreaker.acquirePermission();
+            } catch (CallNotPermittedException e) {
+                return plan.rejectedFallback.apply(joinPoint.getTarget(), e);
+            }
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = joinPoint.proceed();
+            } catch (Exception e) {
+                circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                try {
+                    context.onError(e);
+                } catch (Exception notRetried) {
+                    return plan.fallback.apply(joinPoint.getTarget(), notRetried);
+                }
+                continue;
+            } catch (Throwable t) {
+                circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, t);
+                throw t;
+            }
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!context.onResult(result)) {
+                context.onComplete();
+                return result;
+            }
+        }
+    }
+
+    private static final class Target {
+
+        final Class<?> type;
+
+        final Method method;
+
+        final ResilientCall annotation;
+
+        Target(Class<?> type, Method method, ResilientCall annotation) {
+            this.type = type;
+            this.method = method;
+            this.annotation = annotation;
+        }
+    }
+
+    private static final class Plan {
+
+        final CircuitBreaker circuitBreaker;
+
+        final Retry retry;
+
+        final CountingMode counting;
+
+        final Fallback fallback;
+
+        final Fallback rejectedFallback;
+
+        Plan(CircuitBreaker circuitBreaker, Retry retry, CountingMode counting, Fallback fallback, Fallback rejectedFallback) {
+            this.circuitBreaker = circuitBreaker;
+            this.retry = retry;
+            this.counting = counting;
+            this.fallback = fallback;
+            this.rejectedFallback = rejectedFallback;
+        }
+    }
+
+    private static final class Fallback {
+
+        private static final Fallback NONE = new Fallback(null, Throwable.class);
+
+        private final Method method;
+
+        private final Class<?> exceptionType;
+
+        private Fallback(Method method, Class<?> exceptionType) {
+            this.method = method;
+            this.exceptionType = exceptionType;
+        }
+
+        // a fallback takes exactly one Throwable (or subtype) and returns something assignable to the method's result
+        static Fallback find(Class<?> type, Method method, String name) {
+            if (name.isEmpty()) {
+                return NONE;
+            }
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Method candidate : current.getDeclaredMethods()) {
+                    if (candidate.getName().equals(name)
+                            && candidate.getParameterCount() == 1
+                            && Throwable.class.isAssignableFrom(candidate.getParameterTypes()[0])
+                            && method.getReturnType().isAssignableFrom(candidate.getReturnType())) {
+                        ReflectionUtils.makeAccessible(candidate);
+                        return new Fallback(candidate, candidate.getParameterTypes()[0]);
+                    }
+                }
+            }
+            throw new IllegalStateException("No fallback method " + name + "(Throwable) returning "
+                    + method.getReturnType().getSimpleName() + " on " + type.getName() + " for " + method);
+        }
+
+        Object apply(Object target, Throwable throwable) throws Throwable {
+            if (method == null || !exceptionType.isInstance(throwable)) {
+                throw throwable;
+            }
+            try {
+                return method.invoke(target, throwable);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
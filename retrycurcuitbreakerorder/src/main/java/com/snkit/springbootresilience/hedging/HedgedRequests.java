@@ -0,0 +1,330 @@
+package com.snkit.springbootresilience.hedging;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import com.snkit.springbootresilience.http.RequestAbortHandle;
+
+/**
+ * Hedges slow upstream calls: if the first attempt has not answered within the hedge delay, a second one is
+ * sent in parallel, the first success wins and the other request is aborted. The call only fails once every
+ * attempt it started has failed; a failure before the delay is not hedged, that is the retry's job.
+ * <p>
+ * Hedging sits inside the method the breaker and the retry decorate, so each ordering's breaker records a
+ * hedged call exactly like an unhedged one: one outcome, whichever attempt produced it.
+ * Hedges are capped at {@code max-hedge-percent} of the calls within the window.
+ */
+@Component
+@EnableConfigurationProperties(HedgingProperties.class)
+public class HedgedRequests implements MeterBinder {
+
+    private final HedgingProperties properties;
+
+    private final Executor upstreamExecutor;
+
+    private final LatencyTracker latency;
+
+    private final Bucket[] buckets;
+
+    private final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder hedges = new LongAdder();
+
+    private final LongAdder hedgeWins = new LongAdder();
+
+    private final LongAdder suppressed = new LongAdder();
+
+    public HedgedRequests(HedgingProperties properties, @Qualifier("upstreamExecutor") Executor upstreamExecutor) {
+        this.properties = properties;
+        this.upstreamExecutor = upstreamExecutor;
+        this.latency = new LatencyTracker(properties.getSampleSize(), properties.getPercentile());
+        int windowSeconds = (int) Math.max(1, properties.getWindow().getSeconds());
+        this.buckets = new Bucket[windowSeconds];
+        for (int i = 0; i < windowSeconds; i++) {
+            buckets[i] = new Bucket();
+        }
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Blocking variant: the first attempt runs on the caller's thread, only a hedge goes to the upstream executor.
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!isEnabled()) {
+            return call.get();
+        }
+        HedgedCall<T> hedgedCall = new HedgedCall<>(call);
+        hedgedCall.start(true);
+        try {
+            // the first attempt has finished; a failure there may still be answered by a running hedge
+            return hedgedCall.result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Async variant: attempts run on the upstream executor, a rejected attempt fails like any other. The hedge
+     * delay starts when the first attempt leaves the executor queue.
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<T> call) {
+        HedgedCall<T> hedgedCall = new HedgedCall<>(call);
+        hedgedCall.start(false);
+        return hedgedCall.result;
+    }
+
+    private long hedgeDelayMillis() {
+        long fixed = properties.getDelay().toMillis();
+        if (properties.getDelayMode() == HedgingProperties.DelayMode.FIXED) {
+            return fixed;
+        }
+        long observed = latency.percentileMillis();
+        return observed < 0 ? fixed : Math.max(properties.getMinDelay().toMillis(), observed);
+    }
+
+    private boolean tryHedge() {
+        long now = currentSecond();
+        long windowCalls = 0;
+        long windowHedges = 0;
+        for (Bucket bucket : buckets) {
+            if (now - bucket.second < buckets.length) {
+                windowCalls += bucket.calls.sum();
+                windowHedges += bucket.hedges.sum();
+            }
+        }
+        if ((windowHedges + 1) * 100 > properties.getMaxHedgePercent() * windowCalls) {
+            suppressed.increment();
+            return false;
+        }
+        current().hedges.increment();
+        hedges.increment();
+        return true;
+    }
+
+    private Bucket current() {
+        long second = currentSecond();
+        Bucket bucket = buckets[(int) (second % buckets.length)];
+        if (bucket.second != second) {
+            synchronized (bucket) {
+                if (bucket.second != second) {
+                    bucket.calls.reset();
+                    bucket.hedges.reset();
+                    bucket.second = second;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private double hedgeRate() {
+        long now = currentSecond();
+        long windowCalls = 0;
+        long windowHedges = 0;
+        for (Bucket bucket : buckets) {
+            if (now - bucket.second < buckets.length) {
+                windowCalls += bucket.calls.sum();
+                windowHedges += bucket.hedges.sum();
+            }
+        }
+        return windowCalls == 0 ? 0 : (double) windowHedges / windowCalls;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("hedging.calls", calls, LongAdder::sum)
+                .description("Upstream calls that went through the hedging policy")
+                .register(registry);
+        FunctionCounter.builder("hedging.hedges", hedges, LongAdder::sum)
+                .description("Hedge attempts sent")
+                .register(registry);
+        FunctionCounter.builder("hedging.wins", hedgeWins, LongAdder::sum)
+                .description("Calls answered by the hedge attempt rather than the first one")
+                .register(registry);
+        FunctionCounter.builder("hedging.suppressed", suppressed, LongAdder::sum)
+                .description("Hedges not sent because max-hedge-percent was reached")
+                .register(registry);
+        Gauge.builder("hedging.rate", this, HedgedRequests::hedgeRate)
+                .description("Hedges per call within the window")
+                .register(registry);
+        Gauge.builder("hedging.delay", this, HedgedRequests::hedgeDelayMillis)
+                .description("Current hedge delay")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    private final class HedgedCall<T> {
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        final Supplier<T> call;
+
+        final RequestAbortHandle primary = new RequestAbortHandle();
+
+        volatile RequestAbortHandle hedge;
+
+        volatile ScheduledFuture<?> hedgeTimer;
+
+        // attempts started and not yet finished; 0 means the call is decided and no hedge may start
+        final AtomicInteger running = new AtomicInteger(1);
+
+        volatile Throwable firstFailure;
+
+        HedgedCall(Supplier<T> call) {
+            this.call = call;
+        }
+
+        void start(boolean onCaller) {
+            if (isEnabled()) {
+                calls.increment();
+                current().calls.increment();
+            }
+            if (onCaller) {
+                attempt(primary, false);
+            } else {
+                launch(primary, false);
+            }
+        }
+
+        // called when the first attempt begins running, so time spent in the executor queue does not count as delay
+        void scheduleHedge() {
+            if (isEnabled() && !result.isDone()) {
+                hedgeTimer = timer.schedule(this::hedge, hedgeDelayMillis(), TimeUnit.MILLISECONDS);
+                if (result.isDone()) {
+                    hedgeTimer.cancel(false);
+                }
+            }
+        }
+
+        void hedge() {
+            int current;
+            do {
+                current = running.get();
+                if (current == 0) {
+                    return;
+                }
+            } while (!running.compareAndSet(current, current + 1));
+            if (result.isDone() || !tryHedge()) {
+                failed(null);
+                return;
+            }
+            RequestAbortHandle handle = new RequestAbortHandle();
+            hedge = handle;
+            launch(handle, true);
+        }
+
+        void launch(RequestAbortHandle handle, boolean isHedge) {
+            try {
+                upstreamExecutor.execute(() -> attempt(handle, isHedge));
+            } catch (RuntimeException rejected) {
+                failed(rejected);
+            }
+        }
+
+        void attempt(RequestAbortHandle handle, boolean isHedge) {
+            if (!isHedge) {
+                scheduleHedge();
+            }
+            long startedAt = System.nanoTime();
+            T value;
+            try {
+                value = handle.runBound(call);
+            } catch (Throwable t) {
+                failed(t);
+                return;
+            }
+            latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            succeeded(value, isHedge);
+        }
+
+        void succeeded(T value, boolean isHedge) {
+            running.decrementAndGet();
+            if (result.complete(value)) {
+                if (isHedge) {
+                    hedgeWins.increment();
+                }
+                cancelOthers(isHedge);
+            }
+        }
+
+        // failure is null when a scheduled hedge was not sent
+        void failed(Throwable failure) {
+            if (failure != null) {
+                synchronized (this) {
+                    if (firstFailure == null) {
+                        firstFailure = failure;
+                    } else {
+                        firstFailure.addSuppressed(failure);
+                    }
+                }
+            }
+            if (running.decrementAndGet() == 0 && !result.isDone()) {
+                result.completeExceptionally(firstFailure);
+                cancelOthers(false);
+            }
+        }
+
+        private void cancelOthers(boolean isHedge) {
+            ScheduledFuture<?> scheduled = hedgeTimer;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            RequestAbortHandle loser = isHedge ? primary : hedge;
+            if (loser != null) {
+                loser.abort();
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        volatile long second = -1;
+
+        final LongAdder calls = new LongAdder();
+
+        final LongAdder hedges = new LongAdder();
+    }
+}
@@ -0,0 +1,68 @@
+package com.snkit.springbootresilience.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Percentile of the most recent upstream latencies. Samples go into a fixed ring without locking; the
+ * percentile is recomputed from a sorted copy at most once per refresh interval, by whichever caller
+ * notices it is out of date, and is read from a volatile field otherwise.
+ */
+class LatencyTracker {
+
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLongArray samples;
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final double percentile;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile long percentileMillis = -1;
+
+    private volatile long refreshedAt = System.nanoTime() - REFRESH_NANOS;
+
+    LatencyTracker(int sampleSize, double percentile) {
+        this.samples = new AtomicLongArray(Math.max(1, sampleSize));
+        this.percentile = percentile;
+    }
+
+    void record(long millis) {
+        long index = written.getAndIncrement();
+        samples.lazySet((int) (index % samples.length()), millis);
+    }
+
+    /**
+     * The percentile in milliseconds, or -1 while fewer than a tenth of the samples have been recorded.
+     */
+    long percentileMillis() {
+        long now = System.nanoTime();
+        if (now - refreshedAt >= REFRESH_NANOS && refreshing.compareAndSet(false, true)) {
+            try {
+                percentileMillis = compute();
+                refreshedAt = now;
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return percentileMillis;
+    }
+
+    private long compute() {
+        int count = (int) Math.min(written.get(), samples.length());
+        if (count < Math.max(1, samples.length() / 10)) {
+            return -1;
+        }
+        long[] copy = new long[count];
+        for (int i = 0; i < count; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        return copy[Math.max(0, Math.min(count - 1, (int) Math.ceil(percentile * count) - 1))];
+    }
+}
@@ -0,0 +1,26 @@
+package com.snkit.springbootresilience.http;
+
+import java.net.URI;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * {@link HttpComponentsClientHttpRequestFactory} whose requests can be aborted through the
+ * {@link RequestAbortHandle} bound to the calling thread.
+ */
+public class AbortableRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    public AbortableRequestFactory(HttpClient httpClient) {
+        super(httpClient);
+    }
+
+    @Override
+    protected HttpUriRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+        HttpUriRequest request = super.createHttpUriRequest(httpMethod, uri);
+        RequestAbortHandle.register(request);
+        return request;
+    }
+}
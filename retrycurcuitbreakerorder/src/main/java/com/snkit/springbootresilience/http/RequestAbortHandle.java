@@ -0,0 +1,64 @@
+package com.snkit.springbootresilience.http;
+
+import java.util.function.Supplier;
+
+import org.apache.http.client.methods.HttpUriRequest;
+
+/**
+ * Lets another thread abort the upstream request issued by a call, e.g. the losing attempt of a hedged call.
+ * The handle is bound to the calling thread while the call runs; {@link AbortableRequestFactory} registers
+ * every request created on that thread with it. Aborting closes the connection, so the blocked read fails fast.
+ */
+public final class RequestAbortHandle {
+
+    private static final ThreadLocal<RequestAbortHandle> BOUND = new ThreadLocal<>();
+
+    private volatile HttpUriRequest request;
+
+    private volatile boolean aborted;
+
+    /**
+     * @return the handle bound to the calling thread, null outside {@link #runBound}
+     */
+    public static RequestAbortHandle current() {
+        return BOUND.get();
+    }
+
+    public <T> T runBound(Supplier<T> call) {
+        RequestAbortHandle previous = BOUND.get();
+        BOUND.set(this);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                BOUND.remove();
+            } else {
+                BOUND.set(previous);
+            }
+        }
+    }
+
+    /** True once {@link #abort()} was called, i.e. a failure of the request was caused on purpose. */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public void abort() {
+        aborted = true;
+        HttpUriRequest current = request;
+        if (current != null) {
+            current.abort();
+        }
+    }
+
+    static void register(HttpUriRequest request) {
+        RequestAbortHandle handle = BOUND.get();
+        if (handle != null) {
+            handle.request = request;
+            // abort() may have run before the request existed
+            if (handle.aborted) {
+                request.abort();
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.snkit.springbootresilience.http;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.snkit.springbootresilience.tracking.AttemptContext;
+
+/**
+ * Small bounded pool that runs the blocking upstream exchange for the async {@code /getCustAsync} path,
+ * so the servlet thread is released as soon as the call has been handed off. Retry waits of the async
+ * path are scheduled on the resilience4j retry scheduler and never occupy a thread of this pool.
+ */
+@Configuration
+public class UpstreamExecutorConfiguration {
+
+    @Bean
+    @ConfigurationProperties(prefix = "resilience-demo.async.upstream-executor")
+    public ThreadPoolTaskExecutor upstreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("upstream-");
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(32);
+        executor.setQueueCapacity(200);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        // carry the caller's per-invocation attempt context onto the upstream thread
+        executor.setTaskDecorator(AttemptContext::wrap);
+        return executor;
+    }
+}
@@ -0,0 +1,63 @@
+package com.snkit.springbootresilience.keyed;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "resilience-demo.keyed")
+public class KeyedResilienceProperties {
+
+    /** Circuit breaker instance whose configuration every per-key breaker copies. */
+    private String circuitBreakerTemplate = "getEmploye";
+
+    /** Retry instance whose configuration every per-key retry copies. */
+    private String retryTemplate = "getEmployetretry";
+
+    /** Per-key instances kept at most; beyond that the least recently used are evicted. */
+    private int maxInstances = 1000;
+
+    /** Instances unused for this long are evicted, unless their breaker is open or half open. */
+    private Duration idleTtl = Duration.ofMinutes(10);
+
+    private Duration sweepInterval = Duration.ofSeconds(30);
+
+    public String getCircuitBreakerTemplate() {
+        return circuitBreakerTemplate;
+    }
+
+    public void setCircuitBreakerTemplate(String circuitBreakerTemplate) {
+        this.circuitBreakerTemplate = circuitBreakerTemplate;
+    }
+
+    public String getRetryTemplate() {
+        return retryTemplate;
+    }
+
+    public void setRetryTemplate(String retryTemplate) {
+        this.retryTemplate = retryTemplate;
+    }
+
+    public int getMaxInstances() {
+        return maxInstances;
+    }
+
+    public void setMaxInstances(int maxInstances) {
+        this.maxInstances = maxInstances;
+    }
+
+    public Duration getIdleTtl() {
+        return idleTtl;
+    }
+
+    public void setIdleTtl(Duration idleTtl) {
+        this.idleTtl = idleTtl;
+    }
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+}
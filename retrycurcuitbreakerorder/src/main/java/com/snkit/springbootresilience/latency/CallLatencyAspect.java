@@ -0,0 +1,49 @@
+package com.snkit.springbootresilience.latency;
+
+import java.util.concurrent.CompletionStage;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Just outside the circuit breaker and retry aspects: times the whole decorated call, retries, retry waits
+ * and fallbacks included. Cache hits, coalesced waiters and shed calls never get here.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+public class CallLatencyAspect {
+
+    private final LatencyRecorder latencyRecorder;
+
+    public CallLatencyAspect(LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    @Around("execution(* com.snkit.springbootresilience.ResilianceDemoService.getCust())"
+            + " || execution(* com.snkit.springbootresilience.ResilianceDemoService.getCustAsync())"
+            + " || execution(* com.snkit.springbootresilience.ResilianceDemoService.getCustFused())")
+    public Object timeCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        LatencyRecorder.clearFallbackMark();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable t) {
+            latencyRecorder.recordCall(System.nanoTime() - start, t);
+            throw t;
+        }
+        if (result instanceof CompletionStage) {
+            // completes on the thread that ran the fallback, if one ran, so the fallback mark is still there
+            ((CompletionStage<?>) result).whenComplete((value, throwable) ->
+                    latencyRecorder.recordCall(System.nanoTime() - start, throwable));
+        } else {
+            latencyRecorder.recordCall(System.nanoTime() - start, null);
+        }
+        return result;
+    }
+}
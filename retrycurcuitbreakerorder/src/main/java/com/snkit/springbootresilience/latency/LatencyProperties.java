@@ -0,0 +1,47 @@
+package com.snkit.springbootresilience.latency;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "resilience-demo.latency")
+public class LatencyProperties {
+
+    /** Client side percentiles published with every timer. */
+    private List<Double> percentiles = new ArrayList<>(Arrays.asList(0.5, 0.95, 0.99, 0.999));
+
+    /** SLO bucket boundaries, published as cumulative histogram buckets. */
+    private List<Duration> slo = new ArrayList<>(Arrays.asList(Duration.ofMillis(10), Duration.ofMillis(50),
+            Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1),
+            Duration.ofSeconds(2), Duration.ofSeconds(5)));
+
+    /** Also publish the full set of percentile histogram buckets for server side aggregation. */
+    private boolean percentileHistogram = false;
+
+    public List<Double> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    public List<Duration> getSlo() {
+        return slo;
+    }
+
+    public void setSlo(List<Duration> slo) {
+        this.slo = slo;
+    }
+
+    public boolean isPercentileHistogram() {
+        return percentileHistogram;
+    }
+
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+}
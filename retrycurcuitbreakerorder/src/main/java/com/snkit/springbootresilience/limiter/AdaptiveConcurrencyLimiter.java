@@ -0,0 +1,193 @@
+package com.snkit.springbootresilience.limiter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import com.snkit.springbootresilience.ResilianceDemoService;
+import com.snkit.springbootresilience.http.RequestAbortHandle;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Gradient style concurrency limit for getCust, driven by the latency of the upstream exchanges
+ * (sampled as a RestTemplate interceptor, so every attempt, hedge and refresh of an admitted call counts).
+ * Only the exchanges of the calls {@link ConcurrencyLimitAspect} admits are sampled: the tenant and batch calls
+ * are never shed, so they must not shrink the limit either.
+ * <p>
+ * Every {@code sample-window} the average latency of the window is compared with a long-term average:
+ * {@code gradient = clamp(rttTolerance * longRtt / shortRtt, 0.5, 1)} and
+ * {@code newLimit = limit * gradient + sqrt(limit)}, so the limit grows while latency is flat and shrinks as
+ * soon as the upstream starts queueing. A timeout, 5xx or 429 in the window cuts the limit by {@code backoff-ratio}
+ * instead (AIMD); exchanges aborted on purpose, like the losing request of a hedged call, are not sampled. Admission is a CAS on the in-flight count; the update runs on whichever caller closes the
+ * window and never blocks the others.
+ */
+@Component
+@ConditionalOnProperty(prefix = "resilience-demo.concurrency-limit", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class AdaptiveConcurrencyLimiter implements ClientHttpRequestInterceptor, MeterBinder {
+
+    private final ConcurrencyLimitProperties properties;
+
+    private final long sampleWindowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder rttSum = new LongAdder();
+
+    private final LongAdder rttCount = new LongAdder();
+
+    private final LongAdder drops = new LongAdder();
+
+    private final LongAccumulator maxInFlight = new LongAccumulator(Long::max, 0);
+
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile int limit;
+
+    private volatile long windowStart = System.nanoTime();
+
+    // guarded by updateLock
+    private double estimatedLimit;
+
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.sampleWindowNanos = properties.getSampleWindow().toNanos();
+        this.estimatedLimit = properties.getInitialLimit();
+        this.limit = properties.getInitialLimit();
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                maxInFlight.accumulate(current + 1);
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!isAdmittedExchange(request)) {
+            return execution.execute(request, body);
+        }
+        long start = System.nanoTime();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException e) {
+            // an aborted hedge loser or a refused connection says nothing about upstream queueing, a timeout does
+            RequestAbortHandle handle = RequestAbortHandle.current();
+            boolean aborted = handle != null && handle.isAborted();
+            if (!aborted && e instanceof InterruptedIOException) {
+                onSample(System.nanoTime() - start, true);
+            }
+            throw e;
+        }
+        int status = response.getRawStatusCode();
+        onSample(System.nanoTime() - start, status >= 500 || status == 429);
+        return response;
+    }
+
+    // getCust, getCustAsync and getCustFused: the shared URL without a tenant; getCustFor adds the tenant header
+    // and getCusts asks for ids or the batch URL
+    private static boolean isAdmittedExchange(HttpRequest request) {
+        return ResilianceDemoService.UPSTREAM_URL.equals(request.getURI().toString())
+                && !request.getHeaders().containsKey(ResilianceDemoService.TENANT_HEADER);
+    }
+
+    void onSample(long rttNanos, boolean dropped) {
+        rttSum.add(rttNanos);
+        rttCount.increment();
+        if (dropped) {
+            drops.increment();
+        }
+        long now = System.nanoTime();
+        if (now - windowStart >= sampleWindowNanos && updateLock.tryLock()) {
+            try {
+                if (now - windowStart >= sampleWindowNanos) {
+                    windowStart = now;
+                    update();
+                }
+            } finally {
+                updateLock.unlock();
+            }
+        }
+    }
+
+    private void update() {
+        long count = rttCount.sumThenReset();
+        double shortRtt = count == 0 ? 0 : (double) rttSum.sumThenReset() / count;
+        boolean dropped = drops.sumThenReset() > 0;
+        long peakInFlight = maxInFlight.getThenReset();
+        if (count == 0) {
+            return;
+        }
+
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * properties.getBackoffRatio();
+        } else {
+            longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) / properties.getLongWindow();
+            // let the long-term average follow a recovery quickly instead of holding on to an old, high baseline
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRtt / shortRtt));
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            // only grow while callers actually use the current limit
+            if (peakInFlight < estimatedLimit / 2) {
+                newLimit = Math.min(newLimit, estimatedLimit);
+            }
+            newLimit = estimatedLimit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing();
+        }
+        estimatedLimit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for getCust")
+                .register(registry);
+        Gauge.builder("concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("getCust calls currently holding a concurrency permit")
+                .register(registry);
+        FunctionCounter.builder("concurrency.rejected", rejected, LongAdder::sum)
+                .description("getCust calls shed into the fallbacks because the concurrency limit was reached")
+                .register(registry);
+    }
+}
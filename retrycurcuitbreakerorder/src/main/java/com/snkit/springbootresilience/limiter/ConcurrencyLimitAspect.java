@@ -0,0 +1,70 @@
+package com.snkit.springbootresilience.limiter;
+
+import java.util.concurrent.CompletionStage;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.snkit.springbootresilience.ResilianceDemoService;
+
+/**
+ * Admission right inside the response cache, in front of request coalescing and of the circuit breaker and retry
+ * aspects in either ordering: a getCust, getCustFused or getCustAsync call over the limit goes straight to
+ * getCustFallBack/getCustAsyncFallBack without queueing, is never seen by the breaker or retried, and never waits
+ * for a coalesced call. The permit is held for the whole call including retries, or the wait for the shared call,
+ * and released when the call or its future completes.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "resilience-demo.concurrency-limit", name = "enabled", matchIfMissing = true)
+public class ConcurrencyLimitAspect {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitAspect(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Around("execution(* com.snkit.springbootresilience.ResilianceDemoService.getCust())"
+            + " || execution(* com.snkit.springbootresilience.ResilianceDemoService.getCustFused())")
+    public Object limitGetCust(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!limiter.tryAcquire()) {
+            return service(joinPoint).getCustFallBack(new ConcurrencyLimitExceededException(limiter.getLimit()));
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            limiter.release();
+        }
+    }
+
+    @Around("execution(* com.snkit.springbootresilience.ResilianceDemoService.getCustAsync())")
+    public Object limitGetCustAsync(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!limiter.tryAcquire()) {
+            return service(joinPoint).getCustAsyncFallBack(new ConcurrencyLimitExceededException(limiter.getLimit()));
+        }
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable t) {
+            limiter.release();
+            throw t;
+        }
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, throwable) -> limiter.release());
+        } else {
+            limiter.release();
+        }
+        return result;
+    }
+
+    private static ResilianceDemoService service(ProceedingJoinPoint joinPoint) {
+        return (ResilianceDemoService) joinPoint.getThis();
+    }
+}
@@ -0,0 +1,13 @@
+package com.snkit.springbootresilience.limiter;
+
+/**
+ * Passed to the getCust fallbacks when {@link ConcurrencyLimitAspect} sheds a call.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConcurrencyLimitExceededException(int limit) {
+        super("Concurrency limit of " + limit + " in-flight getCust calls reached", null, false, false);
+    }
+}
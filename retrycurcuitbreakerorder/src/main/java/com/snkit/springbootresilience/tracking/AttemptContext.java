@@ -0,0 +1,112 @@
+package com.snkit.springbootresilience.tracking;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import io.github.resilience4j.core.ContextPropagator;
+
+/**
+ * 单次getCust调用的尝试上下文，替代原先所有请求共享的静态计数器。
+ * 由{@link AttemptContextAspect}在最外层为每次调用创建，并通过ThreadLocal绑定到执行线程；
+ * 重试的每次尝试、fallback都读取同一个上下文，因此并发请求之间互不干扰。
+ * 异步路径中通过{@link #wrap(Runnable)}（上游线程池）和{@link Propagator}（retry调度线程池）把上下文带到其他线程。
+ */
+public final class AttemptContext {
+
+    private static final ThreadLocal<AttemptContext> CURRENT = new ThreadLocal<>();
+
+    // 同一次调用的各次尝试是顺序执行的，跨线程时由线程池提交/调度保证可见性
+    private volatile int attempts;
+
+    private volatile CallOutcome fallbackOutcome;
+
+    public int nextAttempt() {
+        return ++attempts;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void markRetryExhausted() {
+        fallbackOutcome = CallOutcome.RETRY_EXHAUSTED;
+    }
+
+    public void markBreakerRejected() {
+        fallbackOutcome = CallOutcome.BREAKER_REJECTED;
+    }
+
+    public void markShed() {
+        fallbackOutcome = CallOutcome.SHED;
+    }
+
+    CallOutcome completedOutcome() {
+        if (fallbackOutcome != null) {
+            return fallbackOutcome;
+        }
+        return attempts > 1 ? CallOutcome.RETRIED_SUCCESS : CallOutcome.SUCCESS;
+    }
+
+    /**
+     * 当前线程上的调用上下文；不在getCust调用链中时返回一个不会被统计的空上下文，调用方无需判空。
+     */
+    public static AttemptContext current() {
+        AttemptContext context = CURRENT.get();
+        return context != null ? context : new AttemptContext();
+    }
+
+    static AttemptContext bind(AttemptContext context) {
+        AttemptContext previous = CURRENT.get();
+        CURRENT.set(context);
+        return previous;
+    }
+
+    static void restore(AttemptContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * 用于上游线程池的TaskDecorator：任务在提交线程上捕获上下文，在执行线程上恢复。
+     */
+    public static Runnable wrap(Runnable task) {
+        AttemptContext context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            AttemptContext previous = bind(context);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * resilience4j调度线程池的上下文传播器，配置在resilience4j.scheduled.executor.contextPropagators，
+     * 使异步重试在调度线程上仍能拿到发起调用时的上下文。
+     */
+    public static class Propagator implements ContextPropagator<AttemptContext> {
+
+        @Override
+        public Supplier<Optional<AttemptContext>> retrieve() {
+            return () -> Optional.ofNullable(CURRENT.get());
+        }
+
+        @Override
+        public Consumer<Optional<AttemptContext>> copy() {
+            return context -> context.ifPresent(CURRENT::set);
+        }
+
+        @Override
+        public Consumer<Optional<AttemptContext>> clear() {
+            return context -> CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.snkit.springbootresilience.tracking;
+
+import java.util.concurrent.CompletionStage;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 位于缓存、并发限流和请求合并切面之内、@Retry和@CircuitBreaker之外的切面（缓存命中、被限流和合并等待的请求不计入调用统计）：为每次getCust/getCustAsync调用创建独立的{@link AttemptContext}，
+ * 调用结束后按最终结果写入{@link CallStatistics}。
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class AttemptContextAspect {
+
+    private final CallStatistics callStatistics;
+
+    public AttemptContextAspect(CallStatistics callStatistics) {
+        this.callStatistics = callStatistics;
+    }
+
+    @Around("execution(* com.snkit.springbootresilience.ResilianceDemoService.getCust())"
+            + " || execution(* com.snkit.springbootresilience.ResilianceDemoService.getCustAsync())"
+            + " || execution(* com.snkit.springbootresilience.ResilianceDemoService.getCustFused())")
+    public Object trackAttempts(ProceedingJoinPoint joinPoint) throws Throwable {
+        AttemptContext context = new AttemptContext();
+        AttemptContext previous = AttemptContext.bind(context);
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof CompletionStage) {
+                ((CompletionStage<?>) result).whenComplete((value, throwable) ->
+                        callStatistics.recordOutcome(throwable == null ? context.completedOutcome() : CallOutcome.FAILED));
+            } else {
+                callStatistics.recordOutcome(context.completedOutcome());
+            }
+            return result;
+        } catch (Throwable t) {
+            callStatistics.recordOutcome(CallOutcome.FAILED);
+            throw t;
+        } finally {
+            AttemptContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.snkit.springbootresilience.tracking;
+
+/**
+ * 一次getCust调用（包含其全部重试）的最终结果。
+ */
+public enum CallOutcome {
+
+    /** 第一次尝试即成功 */
+    SUCCESS("success"),
+
+    /** 经过重试后成功 */
+    RETRIED_SUCCESS("retried_success"),
+
+    /** 重试次数用尽，由重试fallback兜底 */
+    RETRY_EXHAUSTED("retry_exhausted"),
+
+    /** 断路器打开，调用被拒绝（CallNotPermittedException） */
+    BREAKER_REJECTED("breaker_rejected"),
+
+    /** 超过自适应并发限制，未进入断路器和重试即被拒绝（ConcurrencyLimitExceededException） */
+    SHED("shed"),
+
+    /** 异常未被任何fallback处理，直接抛给了调用方 */
+    FAILED("failed");
+
+    private final String tag;
+
+    CallOutcome(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
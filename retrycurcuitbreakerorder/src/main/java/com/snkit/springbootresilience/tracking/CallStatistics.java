@@ -0,0 +1,71 @@
+package com.snkit.springbootresilience.tracking;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * getCust的聚合统计。使用分段的LongAdder，高并发下各请求线程写不同的cell，不再争用同一个缓存行；
+ * 只有读取（/status、Prometheus抓取）时才做求和。
+ */
+@Component
+public class CallStatistics implements MeterBinder {
+
+    private final LongAdder attempts = new LongAdder();
+
+    private final Map<CallOutcome, LongAdder> outcomes = new EnumMap<>(CallOutcome.class);
+
+    public CallStatistics() {
+        for (CallOutcome outcome : CallOutcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    public void recordAttempt() {
+        attempts.increment();
+    }
+
+    public void recordOutcome(CallOutcome outcome) {
+        outcomes.get(outcome).increment();
+    }
+
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    public long getCalls() {
+        long calls = 0;
+        for (LongAdder adder : outcomes.values()) {
+            calls += adder.sum();
+        }
+        return calls;
+    }
+
+    public long getCount(CallOutcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    public void reset() {
+        attempts.reset();
+        outcomes.values().forEach(LongAdder::reset);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("getcust.attempts", attempts, LongAdder::sum)
+                .description("Upstream attempts made by getCust, retries included")
+                .register(registry);
+        for (Map.Entry<CallOutcome, LongAdder> entry : outcomes.entrySet()) {
+            FunctionCounter.builder("getcust.calls", entry.getValue(), LongAdder::sum)
+                    .description("Completed getCust calls by final outcome")
+                    .tag("outcome", entry.getKey().getTag())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.snkit.springbootresilience.stub;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Minimal HTTP/1.1 server on plain sockets, so faults can be injected below HTTP: a reset is a real TCP RST
+ * (SO_LINGER 0), a hang holds the connection open without answering.
+ * <ul>
+ * <li>{@code GET /getEmploye[?id=...]} - the upstream, subject to the {@link FaultPlan}</li>
+ * <li>{@code GET /getEmployes?ids=a,b,c} - batch variant, one request to the fault plan, answering a JSON
+ * object keyed by id</li>
+ * <li>{@code GET /stats} - request counters, used by the load generator for the call amplification</li>
+ * <li>{@code GET|POST /reset} - zeroes the counters and restarts the outage script clock</li>
+ * </ul>
+ */
+@Component
+@EnableConfigurationProperties(StubProperties.class)
+public class FaultInjectingServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FaultInjectingServer.class);
+
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+    private final StubProperties properties;
+
+    private final FaultPlan faultPlan;
+
+    private final ThreadPoolExecutor workers;
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder ok = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder resets = new LongAdder();
+
+    private final LongAdder hangs = new LongAdder();
+
+    private final LongAdder refused = new LongAdder();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile long startedAt = System.nanoTime();
+
+    private volatile ServerSocket serverSocket;
+
+    public FaultInjectingServer(StubProperties properties) {
+        this.properties = properties;
+        this.faultPlan = new FaultPlan(properties);
+        AtomicInteger threadIds = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(properties.getMaxConnections(), properties.getMaxConnections(),
+                30, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "stub-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(properties.getPort(), 1024);
+        Thread acceptor = new Thread(this::accept, "stub-acceptor");
+        acceptor.start();
+        logger.info("Upstream stub listening on {} (latency {}, error-rate {}, reset-rate {}, {} outage(s))",
+                properties.getPort(), properties.getLatency().getDistribution(), properties.getErrorRate(),
+                properties.getResetRate(), properties.getOutages().size());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        serverSocket.close();
+        workers.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.warn("accept failed: {}", e.toString());
+                }
+                continue;
+            }
+            try {
+                workers.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                refused.increment();
+                reset(socket);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            while (true) {
+                String head = readHead(in);
+                if (head == null) {
+                    break;
+                }
+                skipBody(in, head);
+                String[] requestLine = head.substring(0, head.indexOf('\r')).split(" ");
+                String path = requestLine.length > 1 ? requestLine[1] : "/";
+                boolean keepAlive = !head.toLowerCase(Locale.ROOT).contains("connection: close");
+                if (!handle(socket, out, path, keepAlive) || !keepAlive) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // client went away
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * @return false once the connection has been reset or abandoned
+     */
+    private boolean handle(Socket socket, OutputStream out, String path, boolean keepAlive) throws IOException {
+        if (path.startsWith("/stats")) {
+            write(out, 200, stats(), keepAlive);
+            return true;
+        }
+        if (path.startsWith("/reset")) {
+            reset();
+            write(out, 200, "{\"reset\":true}", keepAlive);
+            return true;
+        }
+        if (!path.startsWith("/getEmploye")) {
+            write(out, 404, "{\"error\":\"not found\"}", keepAlive);
+            return true;
+        }
+
+        requests.increment();
+        inFlight.incrementAndGet();
+        try {
+            FaultPlan.Decision decision = faultPlan.decide(elapsedMillis());
+            sleep(decision.delayMillis);
+            switch (decision.action) {
+                case RESET:
+                    resets.increment();
+                    reset(socket);
+                    return false;
+                case HANG:
+                    hangs.increment();
+                    return false;
+                case ERROR:
+                    errors.increment();
+                    write(out, properties.getErrorStatus(), "{\"error\":\"injected\"}", keepAlive);
+                    return true;
+                case OK:
+                default:
+                    ok.increment();
+                    write(out, 200, employees(path), keepAlive);
+                    return true;
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void reset() {
+        requests.reset();
+        ok.reset();
+        errors.reset();
+        resets.reset();
+        hangs.reset();
+        refused.reset();
+        startedAt = System.nanoTime();
+        logger.info("Counters and outage clock reset");
+    }
+
+    private String stats() {
+        return "{\"requests\":" + requests.sum()
+                + ",\"ok\":" + ok.sum()
+                + ",\"errors\":" + errors.sum()
+                + ",\"resets\":" + resets.sum()
+                + ",\"hangs\":" + hangs.sum()
+                + ",\"refused\":" + refused.sum()
+                + ",\"inFlight\":" + inFlight.get()
+                + ",\"elapsedMillis\":" + elapsedMillis() + "}";
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    private static String employees(String path) {
+        if (path.startsWith("/getEmployes")) {
+            StringBuilder body = new StringBuilder("{");
+            String ids = queryParam(path, "ids");
+            if (ids != null && !ids.isEmpty()) {
+                for (String id : ids.split(",")) {
+                    if (body.length() > 1) {
+                        body.append(',');
+                    }
+                    body.append('"').append(jsonEscape(id)).append("\":").append(employee(id));
+                }
+            }
+            return body.append('}').toString();
+        }
+        String id = queryParam(path, "id");
+        return id == null ? "{\"id\":1,\"name\":\"employee\"}" : employee(id);
+    }
+
+    private static String employee(String id) {
+        return "{\"id\":\"" + jsonEscape(id) + "\",\"name\":\"employee\"}";
+    }
+
+    private static String queryParam(String path, String name) {
+        int query = path.indexOf('?');
+        if (query < 0) {
+            return null;
+        }
+        for (String pair : path.substring(query + 1).split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                try {
+                    return URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+                } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                    return pair.substring(eq + 1);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String jsonEscape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String readHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream(256);
+        int last4 = 0;
+        while (last4 != 0x0D0A0D0A) {
+            int b = in.read();
+            if (b < 0) {
+                return null;
+            }
+            head.write(b);
+            if (head.size() > MAX_HEADER_BYTES) {
+                throw new IOException("request head too large");
+            }
+            last4 = (last4 << 8) | b;
+        }
+        return head.toString(StandardCharsets.ISO_8859_1.name());
+    }
+
+    private static void skipBody(InputStream in, String head) throws IOException {
+        for (String line : head.split("\r\n")) {
+            if (line.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                long remaining = Long.parseLong(line.substring("content-length:".length()).trim());
+                while (remaining > 0) {
+                    long skipped = in.skip(remaining);
+                    if (skipped <= 0) {
+                        if (in.read() < 0) {
+                            return;
+                        }
+                        skipped = 1;
+                    }
+                    remaining -= skipped;
+                }
+            }
+        }
+    }
+
+    private static void write(OutputStream out, int status, String body, boolean keepAlive) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        String head = "HTTP/1.1 " + status + " " + (status < 400 ? "OK" : "Error") + "\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + bytes.length + "\r\n"
+                + (keepAlive ? "" : "Connection: close\r\n")
+                + "\r\n";
+        out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+        out.write(bytes);
+        out.flush();
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void reset(Socket socket) {
+        try {
+            socket.setSoLinger(true, 0);
+        } catch (SocketException e) {
+            // already closed
+        }
+        closeQuietly(socket);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.snkit.springbootresilience.stub;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides what the stub does with one getEmploye request: the scripted outage active at that moment wins,
+ * otherwise reset and error are drawn with their configured rates and the latency from the distribution.
+ */
+class FaultPlan {
+
+    enum Action {
+        OK, ERROR, RESET, HANG
+    }
+
+    static final class Decision {
+
+        final Action action;
+
+        final long delayMillis;
+
+        Decision(Action action, long delayMillis) {
+            this.action = action;
+            this.delayMillis = delayMillis;
+        }
+    }
+
+    private final StubProperties properties;
+
+    FaultPlan(StubProperties properties) {
+        this.properties = properties;
+    }
+
+    Decision decide(long elapsedMillis) {
+        for (StubProperties.Outage outage : properties.getOutages()) {
+            if (outage.isActive(elapsedMillis)) {
+                switch (outage.getMode()) {
+                    case ERROR:
+                        return new Decision(Action.ERROR, 0);
+                    case RESET:
+                        return new Decision(Action.RESET, 0);
+                    case HANG:
+                        return new Decision(Action.HANG, outage.endMillis() - elapsedMillis);
+                    case SLOW:
+                    default:
+                        return new Decision(Action.OK, outage.getLatency().toMillis());
+                }
+            }
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < properties.getResetRate()) {
+            return new Decision(Action.RESET, 0);
+        }
+        long latency = sampleLatency(random);
+        if (random.nextDouble() < properties.getErrorRate()) {
+            return new Decision(Action.ERROR, latency);
+        }
+        return new Decision(Action.OK, latency);
+    }
+
+    private long sampleLatency(ThreadLocalRandom random) {
+        StubProperties.Latency latency = properties.getLatency();
+        long median = latency.getMedian().toMillis();
+        long sampled;
+        switch (latency.getDistribution()) {
+            case FIXED:
+                sampled = median;
+                break;
+            case UNIFORM:
+                long min = latency.getMin().toMillis();
+                sampled = min + random.nextLong(Math.max(1, latency.getMax().toMillis() - min + 1));
+                break;
+            case BIMODAL:
+                sampled = random.nextDouble() < latency.getSlowRate() ? latency.getSlow().toMillis() : median;
+                break;
+            case LOGNORMAL:
+            default:
+                sampled = Math.round(median * Math.exp(latency.getSigma() * random.nextGaussian()));
+                break;
+        }
+        return Math.max(0, Math.min(sampled, latency.getCap().toMillis()));
+    }
+}
@@ -0,0 +1,239 @@
+package com.snkit.springbootresilience.stub;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "stub")
+public class StubProperties {
+
+    private int port = 8070;
+
+    /** Worker threads, i.e. how many requests the stub serves concurrently. */
+    private int maxConnections = 512;
+
+    private final Latency latency = new Latency();
+
+    /** Share of requests answered with {@code error-status}. */
+    private double errorRate = 0;
+
+    private int errorStatus = 500;
+
+    /** Share of requests whose connection is reset (TCP RST) instead of answered. */
+    private double resetRate = 0;
+
+    /** Scripted outages, relative to startup or the last {@code /reset}. */
+    private List<Outage> outages = new ArrayList<>();
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public Latency getLatency() {
+        return latency;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+
+    public void setErrorStatus(int errorStatus) {
+        this.errorStatus = errorStatus;
+    }
+
+    public double getResetRate() {
+        return resetRate;
+    }
+
+    public void setResetRate(double resetRate) {
+        this.resetRate = resetRate;
+    }
+
+    public List<Outage> getOutages() {
+        return outages;
+    }
+
+    public void setOutages(List<Outage> outages) {
+        this.outages = outages;
+    }
+
+    public enum Distribution {
+        /** always {@code median} */
+        FIXED,
+        /** uniform between {@code min} and {@code max} */
+        UNIFORM,
+        /** {@code median * exp(sigma * N(0,1))}, the usual long-tailed service latency */
+        LOGNORMAL,
+        /** {@code median}, except {@code slow-rate} of the requests take {@code slow} */
+        BIMODAL
+    }
+
+    public static class Latency {
+
+        private Distribution distribution = Distribution.LOGNORMAL;
+
+        private Duration median = Duration.ofMillis(20);
+
+        private double sigma = 0.5;
+
+        private Duration min = Duration.ofMillis(5);
+
+        private Duration max = Duration.ofMillis(50);
+
+        private Duration slow = Duration.ofSeconds(2);
+
+        private double slowRate = 0.01;
+
+        /** Upper bound of any sampled latency. */
+        private Duration cap = Duration.ofSeconds(30);
+
+        public Distribution getDistribution() {
+            return distribution;
+        }
+
+        public void setDistribution(Distribution distribution) {
+            this.distribution = distribution;
+        }
+
+        public Duration getMedian() {
+            return median;
+        }
+
+        public void setMedian(Duration median) {
+            this.median = median;
+        }
+
+        public double getSigma() {
+            return sigma;
+        }
+
+        public void setSigma(double sigma) {
+            this.sigma = sigma;
+        }
+
+        public Duration getMin() {
+            return min;
+        }
+
+        public void setMin(Duration min) {
+            this.min = min;
+        }
+
+        public Duration getMax() {
+            return max;
+        }
+
+        public void setMax(Duration max) {
+            this.max = max;
+        }
+
+        public Duration getSlow() {
+            return slow;
+        }
+
+        public void setSlow(Duration slow) {
+            this.slow = slow;
+        }
+
+        public double getSlowRate() {
+            return slowRate;
+        }
+
+        public void setSlowRate(double slowRate) {
+            this.slowRate = slowRate;
+        }
+
+        public Duration getCap() {
+            return cap;
+        }
+
+        public void setCap(Duration cap) {
+            this.cap = cap;
+        }
+    }
+
+    public enum OutageMode {
+        /** every request is answered with {@code error-status} */
+        ERROR,
+        /** every connection is reset */
+        RESET,
+        /** requests are held until the window ends, then the connection is closed without an answer */
+        HANG,
+        /** requests are answered, {@code latency} late */
+        SLOW
+    }
+
+    public static class Outage {
+
+        private Duration start = Duration.ZERO;
+
+        private Duration duration = Duration.ofSeconds(10);
+
+        private OutageMode mode = OutageMode.ERROR;
+
+        private Duration latency = Duration.ofSeconds(3);
+
+        public Duration getStart() {
+            return start;
+        }
+
+        public void setStart(Duration start) {
+            this.start = start;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        public void setDuration(Duration duration) {
+            this.duration = duration;
+        }
+
+        public OutageMode getMode() {
+            return mode;
+        }
+
+        public void setMode(OutageMode mode) {
+            this.mode = mode;
+        }
+
+        public Duration getLatency() {
+            return latency;
+        }
+
+        public void setLatency(Duration latency) {
+            this.latency = latency;
+        }
+
+        boolean isActive(long elapsedMillis) {
+            long from = start.toMillis();
+            return elapsedMillis >= from && elapsedMillis < from + duration.toMillis();
+        }
+
+        long endMillis() {
+            return start.toMillis() + duration.toMillis();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.snkit.springbootresilience.stub;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class UpstreamStubApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(UpstreamStubApplication.class, args);
+    }
+}